@@ -1,5 +1,6 @@
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 /**
@@ -12,6 +13,23 @@ public class TicTacToeAlphaBetaPruning {
     private static final char MAX_PLAYER = 'X';
     private static final char MIN_PLAYER = 'O';
     private static final char EMPTY_CELL = ' ';
+    // the 8 lines of the board (3 rows, 3 columns, 2 diagonals) as {row, col} cells
+    private static final int[][][] LINES = {
+            {{0, 0}, {0, 1}, {0, 2}}, {{1, 0}, {1, 1}, {1, 2}}, {{2, 0}, {2, 1}, {2, 2}},
+            {{0, 0}, {1, 0}, {2, 0}}, {{0, 1}, {1, 1}, {2, 1}}, {{0, 2}, {1, 2}, {2, 2}},
+            {{0, 0}, {1, 1}, {2, 2}}, {{0, 2}, {1, 1}, {2, 0}}
+    };
+
+    // selective search (see SearchOptions), off unless a caller asks for it
+    private static final int LMR_FULL_DEPTH_MOVES = 3; // the first moves in the order are never reduced
+    private static final int LMR_MIN_DEPTH = 3;        // no reductions close to the leaves
+    private static final int FUTILITY_MARGIN = 1;      // how much one quiet move can change the static score
+
+    // difficulty levels 1-5: node budget per computer move, and how far below the best score a move may be
+    // and still be picked at random (scores are -10 / 0 / 10, so 10 means "any move that does not lose outright":
+    // a win may be given away for a draw, but a lost move is only picked when every move loses)
+    private static final long[] LEVEL_NODE_BUDGETS = {30, 150, 600, 3000, 30000};
+    private static final int[] LEVEL_TOLERANCES = {10, 10, 0, 0, 0};
 
     public static void main(String[] args) {
         initializeState();
@@ -19,20 +37,23 @@ public class TicTacToeAlphaBetaPruning {
         char currentPlayer; // Declare currentPlayer outside if-else
 
         System.out.println("Welcome to Tic-Tac-Toe vs Computer (Minimax)! ");
-        System.out.print("Enter the difficulty level (depth for minimax, higher means harder, e.g., 3): ");
-        int depth = 3; // Default depth if input is invalid
+        System.out.print("Enter the difficulty level (1 - 5, higher means harder, e.g., 3): ");
+        int level = 3; // Default level if input is invalid
         try {
-            depth = scanner.nextInt();
-            if (depth < 1) {
-                System.out.println("Depth should be at least 1. Using default depth 3.");
-                depth = 3;
+            level = scanner.nextInt();
+            if (level < 1 || level > LEVEL_NODE_BUDGETS.length) {
+                System.out.println("Level should be between 1 and " + LEVEL_NODE_BUDGETS.length + ". Using default level 3.");
+                level = 3;
             }
         } catch (java.util.InputMismatchException e) {
-            System.out.println("Invalid input. Using default depth 3.");
+            System.out.println("Invalid input. Using default level 3.");
             scanner.next(); // consume the invalid input
-            depth = 3;
+            level = 3;
         }
-        System.out.println("Difficulty level set to depth: " + depth);
+        long nodeBudget = LEVEL_NODE_BUDGETS[level - 1];
+        int tolerance = LEVEL_TOLERANCES[level - 1];
+        Random random = new Random();
+        System.out.println("Difficulty level set to " + level + " (" + nodeBudget + " nodes per move)");
 
         System.out.print("Who should make the first move? (1 - Computer (X), 2 - You (O)): ");
         int firstMoveChooser = 1; // Default to computer first
@@ -61,7 +82,8 @@ public class TicTacToeAlphaBetaPruning {
             printState();
             if (currentPlayer == MAX_PLAYER) {
                 System.out.println("Computer (MAX - X) is thinking...");
-                int[] bestMove = findBestMove(state, depth);
+                // selective search gets about a ply deeper out of the same budget (see TicTacToeSelectiveSearch)
+                int[] bestMove = findBestMoveWithinBudget(state, nodeBudget, tolerance, random, SearchOptions.SELECTIVE);
                 makeMove(state, bestMove[0], bestMove[1], MAX_PLAYER);
                 currentPlayer = MIN_PLAYER;
             } else {
@@ -176,11 +198,29 @@ public class TicTacToeAlphaBetaPruning {
 
     // 4. improve max_value function (add alpha/beta param)
     public static int maxValue(char[][] state, int depth, int alpha, int beta) {
+        return maxValue(state, depth, alpha, beta, SearchOptions.FULL_WIDTH, null);
+    }
+
+    // stats may be null: nothing is counted and there is no node budget
+    public static int maxValue(char[][] state, int depth, int alpha, int beta, SearchOptions options, SearchStats stats) {
+        if (stats != null && stats.countNode()) return 0; // budget spent, the caller throws this iteration away
         if (isGameOver(state)) return evaluate(state);
         if (depth == 0) return evaluate(state);
 
+        // tactical pre-check: win at once if we can, otherwise only a forced block is worth searching
+        int[][] lineCounts = countLines(state);
+        if (!findWinningCells(state, lineCounts, MAX_PLAYER).isEmpty()) return 10;
+        List<int[]> threats = findWinningCells(state, lineCounts, MIN_PLAYER);
+        if (threats.size() > 1 && depth > 1) return -10; // cannot block two lines
+
+        // futility pruning: one ply from the leaves, a quiet move cannot lift a hopeless score above alpha
+        if (options.futilityPruning && depth == 1 && threats.isEmpty()) {
+            int staticEval = evaluate(state);
+            if (staticEval + FUTILITY_MARGIN <= alpha) return staticEval;
+        }
+
         int maxEval = Integer.MIN_VALUE;
-        List<int[]> moves = getValidMoves(state);
+        List<int[]> moves = threats.size() == 1 ? threats : getValidMoves(state);
 
         // prioritize by center to improve pruning efficiency (optional)
         moves.sort((a, b) -> {
@@ -189,15 +229,26 @@ public class TicTacToeAlphaBetaPruning {
             return 0;
         });
 
-        for (int[] move : moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            int[] move = moves.get(i);
             char[][] nextState = copyState(state);
             makeMove(nextState, move[0], move[1], MAX_PLAYER);
-            int eval = minValue(nextState, depth - 1, alpha, beta);
+            int eval;
+            if (options.lateMoveReductions && depth >= LMR_MIN_DEPTH && i >= LMR_FULL_DEPTH_MOVES
+                    && !isTacticalMove(lineCounts, move[0], move[1], MAX_PLAYER)) {
+                // late-move reduction: search one ply less, and again at full depth only if it beats alpha
+                eval = minValue(nextState, depth - 2, alpha, beta, options, stats);
+                if (eval > alpha) eval = minValue(nextState, depth - 1, alpha, beta, options, stats);
+            } else {
+                eval = minValue(nextState, depth - 1, alpha, beta, options, stats);
+            }
+            if (stats != null && stats.aborted) return maxEval;
 
             maxEval = Math.max(maxEval, eval);
             alpha = Math.max(alpha, eval);  // update alpha
 
             if (beta <= alpha) {  // Alpha-Beta pruning condition
+                if (stats != null) stats.cutoffs++;
                 break;  // pruning remaining branches
             }
         }
@@ -206,11 +257,27 @@ public class TicTacToeAlphaBetaPruning {
 
     // 5. improve max_value function（add alpha/beta param）
     public static int minValue(char[][] state, int depth, int alpha, int beta) {
+        return minValue(state, depth, alpha, beta, SearchOptions.FULL_WIDTH, null);
+    }
+
+    public static int minValue(char[][] state, int depth, int alpha, int beta, SearchOptions options, SearchStats stats) {
+        if (stats != null && stats.countNode()) return 0;
         if (isGameOver(state)) return evaluate(state);
         if (depth == 0) return evaluate(state);
 
+        // tactical pre-check (same as in maxValue, seen from MIN's side)
+        int[][] lineCounts = countLines(state);
+        if (!findWinningCells(state, lineCounts, MIN_PLAYER).isEmpty()) return -10;
+        List<int[]> threats = findWinningCells(state, lineCounts, MAX_PLAYER);
+        if (threats.size() > 1 && depth > 1) return 10;
+
+        if (options.futilityPruning && depth == 1 && threats.isEmpty()) {
+            int staticEval = evaluate(state);
+            if (staticEval - FUTILITY_MARGIN >= beta) return staticEval;
+        }
+
         int minEval = Integer.MAX_VALUE;
-        List<int[]> moves = getValidMoves(state);
+        List<int[]> moves = threats.size() == 1 ? threats : getValidMoves(state);
 
         // prioritize by center to improve pruning efficiency (optional)
         moves.sort((a, b) -> {
@@ -219,30 +286,98 @@ public class TicTacToeAlphaBetaPruning {
             return 0;
         });
 
-        for (int[] move : moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            int[] move = moves.get(i);
             char[][] nextState = copyState(state);
             makeMove(nextState, move[0], move[1], MIN_PLAYER);
-            int eval = maxValue(nextState, depth - 1, alpha, beta);
+            int eval;
+            if (options.lateMoveReductions && depth >= LMR_MIN_DEPTH && i >= LMR_FULL_DEPTH_MOVES
+                    && !isTacticalMove(lineCounts, move[0], move[1], MIN_PLAYER)) {
+                eval = maxValue(nextState, depth - 2, alpha, beta, options, stats);
+                if (eval < beta) eval = maxValue(nextState, depth - 1, alpha, beta, options, stats);
+            } else {
+                eval = maxValue(nextState, depth - 1, alpha, beta, options, stats);
+            }
+            if (stats != null && stats.aborted) return minEval;
 
             minEval = Math.min(minEval, eval);
             beta = Math.min(beta, eval);  // update beta
 
             if (beta <= alpha) {  // pruning condition
+                if (stats != null) stats.cutoffs++;
                 break;
             }
         }
         return minEval;
     }
 
+    // selective search settings, passed to each search instead of shared mutable flags.
+    // Below full depth, late-move reductions and futility pruning can miss a forced win or loss,
+    // so the plain overloads use FULL_WIDTH
+    public static final class SearchOptions {
+        public static final SearchOptions FULL_WIDTH = new SearchOptions(false, false);
+        public static final SearchOptions SELECTIVE = new SearchOptions(true, true);
+
+        final boolean lateMoveReductions;
+        final boolean futilityPruning;
+
+        public SearchOptions(boolean lateMoveReductions, boolean futilityPruning) {
+            this.lateMoveReductions = lateMoveReductions;
+            this.futilityPruning = futilityPruning;
+        }
+    }
+
     // 6. improve findBestMove function
     public static int[] findBestMove(char[][] state, int depth) {
+        return findBestMove(state, depth, SearchOptions.FULL_WIDTH);
+    }
+
+    public static int[] findBestMove(char[][] state, int depth, SearchOptions options) {
+        int[] scored = findBestMoveWithScore(state, depth, options);
+        return new int[]{scored[0], scored[1]};
+    }
+
+    // {row, col, score}, the score from X's point of view like evaluate(), found in the same search as the move
+    public static int[] findBestMoveWithScore(char[][] state, int depth) {
+        return findBestMoveWithScore(state, depth, SearchOptions.FULL_WIDTH);
+    }
+
+    public static int[] findBestMoveWithScore(char[][] state, int depth, SearchOptions options) {
+        // with flight recording off this check is all the profiling costs
+        TicTacToeSearchEvents.SearchEvent event = new TicTacToeSearchEvents.SearchEvent();
+        if (!event.isEnabled()) return searchBestMove(state, depth, options, null);
+
+        SearchStats stats = new SearchStats(); // only counted for the event
+        long allocated = TicTacToeSearchEvents.allocatedBytes();
+        event.begin();
+        int[] move = searchBestMove(state, depth, options, stats);
+        event.end();
+        if (event.shouldCommit()) {
+            event.position = TicTacToeSearchEvents.position(state);
+            event.depth = depth;
+            event.move = move[0] + " " + move[1];
+            event.nodes = stats.nodes;
+            event.cutoffs = stats.cutoffs;
+            event.allocatedBytes = TicTacToeSearchEvents.allocatedBytes() - allocated;
+            event.commit();
+        }
+        return move;
+    }
+
+    private static int[] searchBestMove(char[][] state, int depth, SearchOptions options, SearchStats stats) {
         int bestMoveRow = -1;
         int bestMoveCol = -1;
         int maxEval = Integer.MIN_VALUE;
         int alpha = Integer.MIN_VALUE;   // init alpha
         int beta = Integer.MAX_VALUE;    // init beta
 
-        List<int[]> moves = getValidMoves(state);
+        // an immediate win needs no search, and the only possible block only needs its score
+        int[][] lineCounts = countLines(state);
+        List<int[]> wins = findWinningCells(state, lineCounts, MAX_PLAYER);
+        if (!wins.isEmpty()) return new int[]{wins.get(0)[0], wins.get(0)[1], 10};
+        List<int[]> threats = findWinningCells(state, lineCounts, MIN_PLAYER);
+
+        List<int[]> moves = threats.size() == 1 ? threats : getValidMoves(state);
         // prioritize searching the central position to improve pruning efficiency.
         moves.sort((a, b) -> {
             if ((a[0] == 1 && a[1] == 1)) return -1;
@@ -253,8 +388,9 @@ public class TicTacToeAlphaBetaPruning {
         for (int[] move : moves) {
             char[][] nextState = copyState(state);
             makeMove(nextState, move[0], move[1], MAX_PLAYER);
-            int eval = minValue(nextState, depth - 1, alpha, beta); // transmit alpha/beta
+            int eval = minValue(nextState, depth - 1, alpha, beta, options, stats); // transmit alpha/beta
 
+            // a move that raises alpha was searched inside the window, so its score is exact
             if (eval > maxEval) {
                 maxEval = eval;
                 bestMoveRow = move[0];
@@ -262,7 +398,241 @@ public class TicTacToeAlphaBetaPruning {
             }
             alpha = Math.max(alpha, eval); // update alpha
         }
-        return new int[]{bestMoveRow, bestMoveCol};
+        return new int[]{bestMoveRow, bestMoveCol, maxEval};
+    }
+
+    // 7. Multi-PV: the best k moves, each with its exact score and principal variation, in one pass
+    public static List<ScoredMove> findBestMoves(char[][] state, int depth, int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1, got " + k);
+        List<ScoredMove> best = new ArrayList<>(); // sorted, highest score first
+        List<int[]> moves = getValidMoves(state);
+        if (isGameOver(state)) return best;
+        moves.sort((a, b) -> {
+            if ((a[0] == 1 && a[1] == 1)) return -1;
+            if ((b[0] == 1 && b[1] == 1)) return 1;
+            return 0;
+        });
+
+        for (int[] move : moves) {
+            char[][] nextState = copyState(state);
+            makeMove(nextState, move[0], move[1], MAX_PLAYER);
+            // once we have k lines, a move only matters if it can beat the k-th one (ties included),
+            // so the score of the k-th line is the alpha for the rest; a fail-low result is not exact and is dropped
+            int alpha = best.size() < k ? Integer.MIN_VALUE : best.get(k - 1).score - 1;
+            int eval = minValue(nextState, depth - 1, alpha, Integer.MAX_VALUE);
+            if (eval <= alpha) continue;
+
+            int index = 0;
+            while (index < best.size() && best.get(index).score >= eval) index++;
+            best.add(index, new ScoredMove(move[0], move[1], eval));
+            if (best.size() > k) best.remove(k);
+        }
+
+        for (ScoredMove line : best) {
+            char[][] nextState = copyState(state);
+            makeMove(nextState, line.row, line.col, MAX_PLAYER);
+            line.pv.add(new int[]{line.row, line.col});
+            collectPrincipalVariation(nextState, depth - 1, line.score, MIN_PLAYER, line.pv);
+        }
+        return best;
+    }
+
+    // follow the child whose score equals the line score, checked with a null window around it
+    private static void collectPrincipalVariation(char[][] state, int depth, int score, char player, List<int[]> pv) {
+        while (depth > 0 && !isGameOver(state)) {
+            int[] next = null;
+            for (int[] move : getValidMoves(state)) {
+                char[][] childState = copyState(state);
+                makeMove(childState, move[0], move[1], player);
+                int eval = player == MAX_PLAYER
+                        ? minValue(childState, depth - 1, score - 1, score + 1)
+                        : maxValue(childState, depth - 1, score - 1, score + 1);
+                if (eval == score) {
+                    next = move;
+                    state = childState;
+                    break;
+                }
+            }
+            if (next == null) return;
+            pv.add(next);
+            player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+            depth--;
+        }
+    }
+
+    public static class ScoredMove {
+        public final int row;
+        public final int col;
+        public final int score;
+        public final List<int[]> pv = new ArrayList<>(); // starts with this move
+
+        ScoredMove(int row, int col, int score) {
+            this.row = row;
+            this.col = col;
+            this.score = score;
+        }
+    }
+
+    // 8. Node-budget search: iterative deepening until the budget runs out, so every move costs about the same CPU
+    // returns a random move among those scoring within `tolerance` of the best in the last finished iteration
+    public static int[] findBestMoveWithinBudget(char[][] state, long nodeBudget, int tolerance, Random random) {
+        return findBestMoveWithinBudget(state, nodeBudget, tolerance, random, SearchOptions.FULL_WIDTH);
+    }
+
+    public static int[] findBestMoveWithinBudget(char[][] state, long nodeBudget, int tolerance, Random random,
+                                                 SearchOptions options) {
+        int[][] lineCounts = countLines(state);
+        List<int[]> wins = findWinningCells(state, lineCounts, MAX_PLAYER);
+        if (!wins.isEmpty()) return wins.get(0);
+        List<int[]> threats = findWinningCells(state, lineCounts, MIN_PLAYER);
+        if (threats.size() == 1) return threats.get(0);
+
+        List<int[]> moves = getValidMoves(state);
+        moves.sort((a, b) -> {
+            if ((a[0] == 1 && a[1] == 1)) return -1;
+            if ((b[0] == 1 && b[1] == 1)) return 1;
+            return 0;
+        });
+        List<int[]> choices = new ArrayList<>(moves); // before any iteration finishes, every move is a choice
+
+        SearchStats stats = new SearchStats();
+        TicTacToeSearchEvents.SearchEvent event = new TicTacToeSearchEvents.SearchEvent();
+        boolean recording = event.isEnabled();
+        long allocated = recording ? TicTacToeSearchEvents.allocatedBytes() : 0;
+        int finishedDepth = 0;
+        if (recording) event.begin();
+        stats.start(nodeBudget);
+        for (int depth = 1; depth <= moves.size(); depth++) {
+            TicTacToeSearchEvents.IterationEvent iteration = recording ? new TicTacToeSearchEvents.IterationEvent() : null;
+            long iterationNodes = stats.nodes, iterationCutoffs = stats.cutoffs;
+            long iterationAllocated = recording ? TicTacToeSearchEvents.allocatedBytes() : 0;
+            if (recording) iteration.begin();
+            int[] scores = new int[moves.size()];
+            int maxEval = Integer.MIN_VALUE;
+            for (int i = 0; i < moves.size() && !stats.aborted; i++) {
+                char[][] nextState = copyState(state);
+                makeMove(nextState, moves.get(i)[0], moves.get(i)[1], MAX_PLAYER);
+                // anything that cannot get within tolerance of the best so far only needs a bound
+                int alpha = maxEval == Integer.MIN_VALUE ? Integer.MIN_VALUE : maxEval - tolerance - 1;
+                scores[i] = minValue(nextState, depth - 1, alpha, Integer.MAX_VALUE, options, stats);
+                maxEval = Math.max(maxEval, scores[i]);
+            }
+            if (recording) {
+                iteration.end();
+                if (iteration.shouldCommit()) {
+                    iteration.position = TicTacToeSearchEvents.position(state);
+                    iteration.depth = depth;
+                    iteration.completed = !stats.aborted;
+                    iteration.nodes = stats.nodes - iterationNodes;
+                    iteration.cutoffs = stats.cutoffs - iterationCutoffs;
+                    iteration.allocatedBytes = TicTacToeSearchEvents.allocatedBytes() - iterationAllocated;
+                    iteration.commit();
+                }
+            }
+            if (stats.aborted) break; // unfinished iteration, keep the last finished one
+            finishedDepth = depth;
+
+            choices.clear();
+            int lowest = maxEval > -10 ? Math.max(maxEval - tolerance, -9) : maxEval; // never a losing move by choice
+            for (int i = 0; i < moves.size(); i++) {
+                if (scores[i] >= lowest) choices.add(moves.get(i));
+            }
+        }
+        int[] move = choices.get(random.nextInt(choices.size()));
+        if (recording) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.position = TicTacToeSearchEvents.position(state);
+                event.depth = finishedDepth;
+                event.move = move[0] + " " + move[1];
+                event.nodes = Math.min(stats.nodes, nodeBudget);
+                event.cutoffs = stats.cutoffs;
+                event.allocatedBytes = TicTacToeSearchEvents.allocatedBytes() - allocated;
+                event.commit();
+            }
+        }
+        return move;
+    }
+
+    // counters of one search, owned by its caller; no budget unless start() sets one
+    public static class SearchStats {
+        long nodes;
+        long cutoffs;
+        long nodeBudget = Long.MAX_VALUE;
+        boolean aborted;
+
+        void start(long budget) {
+            nodes = 0;
+            cutoffs = 0;
+            nodeBudget = budget;
+            aborted = false;
+        }
+
+        // counts a node, true once the budget is spent
+        boolean countNode() {
+            if (++nodes > nodeBudget) aborted = true;
+            return aborted;
+        }
+
+        public long nodes() {
+            return nodes;
+        }
+
+        public long cutoffs() {
+            return cutoffs;
+        }
+    }
+
+    // 9. Tactical helpers: occupancy counters for every line
+    // counts[line][0] is the number of X stones on the line, counts[line][1] the number of O stones
+    public static int[][] countLines(char[][] state) {
+        int[][] counts = new int[LINES.length][2];
+        for (int l = 0; l < LINES.length; l++) {
+            for (int[] cell : LINES[l]) {
+                char c = state[cell[0]][cell[1]];
+                if (c == MAX_PLAYER) counts[l][0]++;
+                else if (c == MIN_PLAYER) counts[l][1]++;
+            }
+        }
+        return counts;
+    }
+
+    // a move that makes a two on a line the opponent has not touched, or blocks the opponent's two:
+    // such a move creates or answers a threat and is never reduced
+    private static boolean isTacticalMove(int[][] lineCounts, int row, int col, char player) {
+        int own = player == MAX_PLAYER ? 0 : 1;
+        for (int line = 0; line < LINES.length; line++) {
+            boolean onLine = false;
+            for (int[] cell : LINES[line]) {
+                if (cell[0] == row && cell[1] == col) onLine = true;
+            }
+            if (!onLine) continue;
+            int mine = lineCounts[line][own], theirs = lineCounts[line][1 - own];
+            if (theirs == 0 && mine == 1 || mine == 0 && theirs == 2) return true;
+        }
+        return false;
+    }
+
+    // cells where player would complete a line right now (a line with two own stones and no opponent stone)
+    public static List<int[]> findWinningCells(char[][] state, int[][] lineCounts, char player) {
+        int own = player == MAX_PLAYER ? 0 : 1;
+        List<int[]> cells = new ArrayList<>();
+        for (int l = 0; l < LINES.length; l++) {
+            if (lineCounts[l][own] != 2 || lineCounts[l][1 - own] != 0) continue;
+            for (int[] cell : LINES[l]) {
+                if (state[cell[0]][cell[1]] == EMPTY_CELL && !containsCell(cells, cell)) {
+                    cells.add(new int[]{cell[0], cell[1]});
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static boolean containsCell(List<int[]> cells, int[] cell) {
+        for (int[] c : cells) {
+            if (c[0] == cell[0] && c[1] == cell[1]) return true;
+        }
+        return false;
     }
 
     // Helper function to copy the state (for minimax simulation)
@@ -0,0 +1,403 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alpha-beta split over several worker JVMs on the same machine, connected by local sockets.
+ *
+ * - The coordinator searches the first root move itself ("young brothers wait": the eldest brother gives a bound
+ *   first), then hands the other root moves to the workers as jobs.
+ * - Every time a job improves the best score, the new alpha is sent to all workers, and a worker that is searching
+ *   a job with a worse bound stops it early (fail low).
+ * - A worker that does not answer within the timeout, or whose connection breaks, is dropped and its job goes
+ *   back to the queue. If no workers are left, the coordinator finishes the jobs itself.
+ *
+ * Binary protocol (DataOutputStream, big endian):
+ *   SEARCH  byte 1, int searchId, int jobId, byte side, byte depth, int alpha, int beta, 9 bytes cells (0 empty, 1 X, 2 O)
+ *   BOUND   byte 2, int searchId, int alpha
+ *   QUIT    byte 0
+ *   answer  int jobId, int score, long nodes
+ *
+ * Usage: java TicTacToeDistributedSearch [workers (default 3)] [depth (default 9)] [kill]   (kill = kill one worker
+ *        right after start, to see the job reassignment)
+ *        java TicTacToeDistributedSearch worker   (started by the coordinator, prints "PORT n" and serves one connection)
+ */
+public class TicTacToeDistributedSearch {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    private static final byte SEARCH = 1;
+    private static final byte BOUND = 2;
+    private static final byte QUIT = 0;
+    private static final int JOB_TIMEOUT_MILLIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("worker")) {
+            runWorker();
+            return;
+        }
+        int workerCount = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        boolean killOne = args.length > 2 && args[2].equals("kill");
+
+        char[][] state = new char[3][3];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+        state[0][0] = MIN_PLAYER;
+
+        Coordinator coordinator = new Coordinator(workerCount);
+        try {
+            if (killOne) coordinator.workers.get(0).process.destroyForcibly();
+            long start = System.nanoTime();
+            int[] result = coordinator.findBestMove(state, depth);
+            System.out.printf("distributed: move %d %d, score %d, %d ms, %d live workers%n",
+                    result[0], result[1], result[2], (System.nanoTime() - start) / 1_000_000, coordinator.liveWorkers());
+            for (WorkerConnection worker : coordinator.workers) {
+                System.out.printf("  worker %d: %d nodes%s%n", worker.index, worker.nodes, worker.alive ? "" : " (failed)");
+            }
+            int[] local = TicTacToeAlphaBetaPruning.findBestMove(state, depth);
+            System.out.printf("local:       move %d %d%n", local[0], local[1]);
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    // 1. Coordinator
+    static class Coordinator implements AutoCloseable {
+        final List<WorkerConnection> workers = new ArrayList<>();
+        private int searchId;
+
+        Coordinator(int workerCount) throws IOException {
+            String java = ProcessHandle.current().info().command().orElse("java");
+            String classPath = System.getProperty("java.class.path");
+            for (int i = 0; i < workerCount; i++) {
+                Process process = new ProcessBuilder(java, "-cp", classPath, TicTacToeDistributedSearch.class.getName(), "worker")
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                String line = reader.readLine();
+                if (line == null || !line.startsWith("PORT ")) {
+                    process.destroyForcibly();
+                    throw new IOException("worker " + i + " did not start");
+                }
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(line.substring(5).trim()));
+                socket.setTcpNoDelay(true);
+                workers.add(new WorkerConnection(i, process, socket));
+            }
+        }
+
+        int liveWorkers() {
+            int live = 0;
+            for (WorkerConnection worker : workers) {
+                if (worker.alive) live++;
+            }
+            return live;
+        }
+
+        // returns {row, col, score}, or null when the board is full
+        int[] findBestMove(char[][] state, int depth) throws InterruptedException {
+            int id = ++searchId;
+            List<int[]> moves = TicTacToeAlphaBetaPruning.getValidMoves(state);
+            moves.sort((a, b) -> {
+                if ((a[0] == 1 && a[1] == 1)) return -1;
+                if ((b[0] == 1 && b[1] == 1)) return 1;
+                return 0;
+            });
+            if (moves.isEmpty()) return null;
+            SharedBest best = new SharedBest();
+
+            // eldest brother: searched here, to get a bound before splitting
+            int[] first = moves.get(0);
+            best.offer(first, TicTacToeAlphaBetaPruning.minValue(child(state, first), depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+            LinkedBlockingDeque<Job> queue = new LinkedBlockingDeque<>();
+            CountDownLatch done = new CountDownLatch(moves.size() - 1);
+            for (int i = 1; i < moves.size(); i++) {
+                queue.add(new Job(i, moves.get(i), child(state, moves.get(i))));
+            }
+
+            List<Thread> threads = new ArrayList<>();
+            for (WorkerConnection worker : workers) {
+                if (!worker.alive) continue;
+                Thread thread = new Thread(() -> worker.serve(id, depth - 1, queue, best, done, workers), "worker-" + worker.index);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+
+            // whatever is left once every worker has died is searched locally
+            while (!done.await(50, TimeUnit.MILLISECONDS)) {
+                if (liveWorkers() > 0) continue;
+                Job job;
+                while ((job = queue.pollFirst()) != null) {
+                    best.offer(job.move, TicTacToeAlphaBetaPruning.minValue(job.state, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+                    done.countDown();
+                }
+            }
+            queue.add(Job.POISON);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            return new int[]{best.move[0], best.move[1], best.score};
+        }
+
+        @Override
+        public void close() {
+            for (WorkerConnection worker : workers) {
+                worker.close();
+            }
+        }
+    }
+
+    static class SharedBest {
+        int[] move;
+        int score = Integer.MIN_VALUE;
+
+        synchronized boolean offer(int[] candidate, int eval) {
+            if (eval > score) {
+                score = eval;
+                move = candidate;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized int alpha() {
+            return score;
+        }
+    }
+
+    static class Job {
+        static final Job POISON = new Job(-1, null, null);
+        final int id;
+        final int[] move;
+        final char[][] state;
+
+        Job(int id, int[] move, char[][] state) {
+            this.id = id;
+            this.move = move;
+            this.state = state;
+        }
+    }
+
+    // 2. One connection to a worker process, used by one coordinator thread (plus bound broadcasts)
+    static class WorkerConnection {
+        final int index;
+        final Process process;
+        final Socket socket;
+        final DataOutputStream out;
+        final DataInputStream in;
+        volatile boolean alive = true;
+        long nodes; // searched by this worker so far
+
+        WorkerConnection(int index, Process process, Socket socket) throws IOException {
+            this.index = index;
+            this.process = process;
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        void serve(int searchId, int depth, LinkedBlockingDeque<Job> queue, SharedBest best, CountDownLatch done,
+                   List<WorkerConnection> all) {
+            try {
+                socket.setSoTimeout(JOB_TIMEOUT_MILLIS);
+                while (alive) {
+                    Job job = queue.takeFirst();
+                    if (job == Job.POISON) {
+                        queue.addFirst(job); // leave it for the other threads
+                        return;
+                    }
+                    try {
+                        sendSearch(searchId, job, depth, best.alpha());
+                        int jobId = in.readInt();
+                        int score = in.readInt();
+                        nodes += in.readLong();
+                        if (jobId != job.id) throw new IOException("unexpected answer for job " + jobId);
+                        if (best.offer(job.move, score)) {
+                            for (WorkerConnection other : all) {
+                                if (other != this && other.alive) other.sendBound(searchId, score);
+                            }
+                        }
+                        done.countDown();
+                    } catch (IOException e) {
+                        // timeout or broken connection: give the job to someone else and stop using this worker
+                        System.err.println("worker " + index + " failed (" + e + "), reassigning job " + job.id);
+                        queue.addFirst(job);
+                        close();
+                    }
+                }
+            } catch (InterruptedException | IOException e) {
+                close();
+            }
+        }
+
+        synchronized void sendSearch(int searchId, Job job, int depth, int alpha) throws IOException {
+            out.writeByte(SEARCH);
+            out.writeInt(searchId);
+            out.writeInt(job.id);
+            out.writeByte(1);
+            out.writeByte(depth);
+            out.writeInt(alpha);
+            out.writeInt(Integer.MAX_VALUE);
+            out.write(encodeCells(job.state));
+            out.flush();
+        }
+
+        synchronized void sendBound(int searchId, int alpha) {
+            try {
+                out.writeByte(BOUND);
+                out.writeInt(searchId);
+                out.writeInt(alpha);
+                out.flush();
+            } catch (IOException e) {
+                alive = false; // its own thread notices on the next read
+            }
+        }
+
+        synchronized void close() {
+            if (!alive && !process.isAlive()) return;
+            alive = false;
+            try {
+                out.writeByte(QUIT);
+                out.flush();
+            } catch (IOException ignored) {
+                // already gone
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // nothing left to do
+            }
+            process.destroy();
+        }
+    }
+
+    // 3. Worker: a reader thread takes messages, a search thread runs one job at a time
+    private static volatile int boundSearchId;
+    private static volatile int sharedAlpha = Integer.MIN_VALUE;
+
+    static void runWorker() throws IOException, InterruptedException {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            System.out.println("PORT " + server.getLocalPort());
+            System.out.flush();
+            try (Socket socket = server.accept()) {
+                socket.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                BlockingQueue<int[]> jobs = new LinkedBlockingQueue<>(); // {searchId, jobId, side, depth, alpha, beta, cells...}
+
+                Thread searcher = new Thread(() -> {
+                    try {
+                        while (true) {
+                            int[] job = jobs.take();
+                            TicTacToeAlphaBetaPruning.SearchStats stats = new TicTacToeAlphaBetaPruning.SearchStats();
+                            int score = searchJob(job, stats);
+                            synchronized (out) {
+                                out.writeInt(job[1]);
+                                out.writeInt(score);
+                                out.writeLong(stats.nodes());
+                                out.flush();
+                            }
+                        }
+                    } catch (InterruptedException | IOException e) {
+                        // coordinator went away
+                    }
+                }, "searcher");
+                searcher.setDaemon(true);
+                searcher.start();
+
+                try {
+                    while (true) {
+                        byte type = in.readByte();
+                        if (type == QUIT) break;
+                        if (type == BOUND) {
+                            int searchId = in.readInt();
+                            int alpha = in.readInt();
+                            if (searchId == boundSearchId) sharedAlpha = Math.max(sharedAlpha, alpha);
+                        } else if (type == SEARCH) {
+                            int[] job = new int[6 + 9];
+                            job[0] = in.readInt();
+                            job[1] = in.readInt();
+                            job[2] = in.readByte();
+                            job[3] = in.readByte();
+                            job[4] = in.readInt();
+                            job[5] = in.readInt();
+                            for (int i = 0; i < 9; i++) job[6 + i] = in.readByte();
+                            if (job[0] != boundSearchId) {
+                                boundSearchId = job[0];
+                                sharedAlpha = Integer.MIN_VALUE;
+                            }
+                            jobs.add(job);
+                        }
+                    }
+                } catch (EOFException e) {
+                    // coordinator closed the connection
+                }
+            }
+        }
+    }
+
+    // the job root is a MIN node (X has just played the root move); it gives up as soon as the shared alpha shows
+    // that this root move cannot be the best any more
+    private static int searchJob(int[] job, TicTacToeAlphaBetaPruning.SearchStats stats) {
+        char[][] state = new char[3][3];
+        for (int i = 0; i < 9; i++) {
+            state[i / 3][i % 3] = job[6 + i] == 1 ? MAX_PLAYER : job[6 + i] == 2 ? MIN_PLAYER : EMPTY_CELL;
+        }
+        int depth = job[3];
+        int alpha = job[4];
+        int beta = job[5];
+        if (depth == 0 || TicTacToeAlphaBetaPruning.isGameOver(state)) return TicTacToeAlphaBetaPruning.evaluate(state);
+
+        int minEval = Integer.MAX_VALUE;
+        for (int[] move : TicTacToeAlphaBetaPruning.getValidMoves(state)) {
+            alpha = Math.max(alpha, sharedAlpha);
+            if (minEval <= alpha) break; // fail low against the newest bound
+            char[][] nextState = child(state, move, MIN_PLAYER);
+            int eval = TicTacToeAlphaBetaPruning.maxValue(nextState, depth - 1, alpha, beta,
+                    TicTacToeAlphaBetaPruning.SearchOptions.FULL_WIDTH, stats);
+            minEval = Math.min(minEval, eval);
+            beta = Math.min(beta, eval);
+            if (beta <= alpha) break;
+        }
+        return minEval;
+    }
+
+    // Helper functions
+    private static char[][] child(char[][] state, int[] move) {
+        return child(state, move, MAX_PLAYER);
+    }
+
+    private static char[][] child(char[][] state, int[] move, char player) {
+        char[][] nextState = TicTacToeAlphaBetaPruning.copyState(state);
+        TicTacToeAlphaBetaPruning.makeMove(nextState, move[0], move[1], player);
+        return nextState;
+    }
+
+    private static byte[] encodeCells(char[][] state) {
+        byte[] cells = new byte[9];
+        for (int i = 0; i < 9; i++) {
+            char c = state[i / 3][i % 3];
+            cells[i] = (byte) (c == MAX_PLAYER ? 1 : c == MIN_PLAYER ? 2 : 0);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,329 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the engine (and search depth) for each move request instead of callers hard-coding one.
+ *
+ * An option is an engine plus a depth. For a request (board, k, time budget) the dispatcher:
+ * - keeps the engines that support the board and k (the minimax engines and alpha-beta only know 3x3)
+ * - keeps the options whose expected time fits the budget
+ * - exact options (depth = empty cells, or an engine that solves the position) all give a best move: the cheapest wins
+ * - otherwise takes the deepest option, then the engine with the better quality rank, and only then the cheapest,
+ *   since engines of different quality do not give the same answer at the same depth
+ * If nothing is known to fit, the cheapest measured option is used, or the shallowest one when nothing is measured.
+ * A depth that was never measured is expected to cost as many times more than the one above it as that one did, but
+ * at least sqrt(candidate moves) times more (alpha-beta with perfect ordering); only one depth past the deepest
+ * measured one is offered, and once it has been played it is measured too.
+ *
+ * Expected times come from a cost table keyed by engine, geometry, empty cells (bucketed on big boards, except the
+ * empty board, which has a single candidate move and gets its own entry) and depth.
+ * calibrate() fills it with a short benchmark at startup; every dispatched search is timed and folded into the
+ * table as an exponentially weighted moving average, so the table follows the machine and the JIT.
+ *
+ * Usage: java TicTacToeEngineDispatcher   calibrates 3x3 and 9x9 (5 in a row), then plays games at several budgets
+ */
+public class TicTacToeEngineDispatcher {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    private static final int MAX_SEARCH_DEPTH = 9;      // deepest search offered
+    private static final int HYBRID_THRESHOLD = 12;     // TicTacToeHybridSearch solves exactly from here down
+    private static final double EWMA_WEIGHT = 0.2;      // weight of a new timing in the moving average
+    private static final long CALIBRATION_LIMIT_NANOS = 50_000_000L; // depths expected to be slower are not measured
+
+    public interface Engine {
+        String name();
+
+        boolean supports(int rows, int cols, int k);
+
+        // true when the engine answers exactly at this many empty cells whatever the depth
+        boolean solvesExactly(int empty);
+
+        // how good its moves are below full depth; engines with the same rank give equivalent answers at a depth
+        int quality();
+
+        // plays X, like every engine in this package
+        int[] findBestMove(char[][] state, int k, int depth);
+    }
+
+    // quality: minimax only sees wins, alpha-beta also takes wins and blocks threats first, heuristic-minimax scores
+    // lines at its leaves, pattern scores shapes; hybrid is the pattern search until it solves exactly
+    public static final List<Engine> ENGINES = List.of(
+            engine("minimax", 3, 0, 0, (state, k, depth) -> TicTacToeMinimaxByAI.findBestMove(state, depth)),
+            engine("heuristic-minimax", 3, 0, 2, (state, k, depth) -> TicTacToeMinimaxEvaluateImproveByAI.findBestMove(state, depth)),
+            engine("alphabeta", 3, 0, 1, (state, k, depth) -> TicTacToeAlphaBetaPruning.findBestMove(state, depth)),
+            engine("pattern", Integer.MAX_VALUE, 0, 3, TicTacToePatternEvaluator::findBestMove),
+            engine("hybrid", 8, HYBRID_THRESHOLD, 3,
+                    (state, k, depth) -> TicTacToeHybridSearch.findBestMove(state, k, depth, HYBRID_THRESHOLD)));
+
+    private final List<Engine> engines;
+    private final Map<String, Double> costs = new ConcurrentHashMap<>(); // expected nanoseconds per option
+
+    public TicTacToeEngineDispatcher(List<Engine> engines) {
+        this.engines = engines;
+    }
+
+    public static void main(String[] args) {
+        TicTacToeEngineDispatcher dispatcher = new TicTacToeEngineDispatcher(ENGINES);
+        long start = System.nanoTime();
+        dispatcher.calibrate(3, 3, 3, new Random(717));
+        dispatcher.calibrate(9, 9, 5, new Random(717));
+        System.out.printf("calibrated %d options in %d ms%n", dispatcher.costs.size(), (System.nanoTime() - start) / 1_000_000);
+
+        for (int[] geometry : new int[][]{{3, 3, 3}, {9, 9, 5}}) {
+            for (double budgetMillis : new double[]{0.1, 2, 50}) {
+                Map<String, Integer> choices = new TreeMap<>();
+                int requests = 0, late = 0;
+                long total = 0, worst = 0;
+                Random random = new Random(42);
+                for (int game = 0; game < 20; game++) {
+                    char[][] state = emptyState(geometry[0], geometry[1]);
+                    char player = MAX_PLAYER;
+                    while (!isOver(state, geometry[2])) {
+                        int[] move;
+                        if (player == MAX_PLAYER) {
+                            long moveStart = System.nanoTime();
+                            Decision decision = dispatcher.findBestMove(state, geometry[2], (long) (budgetMillis * 1_000_000));
+                            long nanos = System.nanoTime() - moveStart;
+                            choices.merge(decision.engine + "@" + decision.depth, 1, Integer::sum);
+                            requests++;
+                            total += nanos;
+                            worst = Math.max(worst, nanos);
+                            if (nanos > budgetMillis * 1_000_000) late++;
+                            move = decision.move;
+                        } else {
+                            List<int[]> moves = TicTacToeThreatSpaceSearch.getCandidateMoves(state);
+                            move = moves.get(random.nextInt(moves.size()));
+                        }
+                        state[move[0]][move[1]] = player;
+                        player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+                    }
+                }
+                System.out.printf("%dx%d k=%d, budget %.2f ms: %d moves, %.3f ms average, %.3f ms worst, %d over budget, %s%n",
+                        geometry[0], geometry[1], geometry[2], budgetMillis, requests, total / 1e6 / requests, worst / 1e6,
+                        late, choices);
+            }
+        }
+    }
+
+    // 1. Dispatch
+    public Decision findBestMove(char[][] state, int k, long budgetNanos) {
+        int rows = state.length, cols = state[0].length;
+        int empty = TicTacToeHybridSearch.countEmpty(state);
+        int candidates = TicTacToeThreatSpaceSearch.getCandidateMoves(state).size();
+        Decision decision = choose(rows, cols, k, empty, candidates, budgetNanos);
+        long start = System.nanoTime();
+        decision.move = decision.engineImpl.findBestMove(TicTacToeThreatSpaceSearch.copyState(state), k, decision.depth);
+        record(decision.engine, rows, cols, k, empty, decision.depth, System.nanoTime() - start);
+        return decision;
+    }
+
+    public Decision choose(int rows, int cols, int k, int empty, int candidates, long budgetNanos) {
+        Decision best = null;       // best option expected to fit, see better()
+        Decision cheapest = null;   // fallback: cheapest measured option
+        Decision shallowest = null; // fallback when nothing is measured yet
+        double minGrowth = Math.max(2, Math.sqrt(candidates));
+        for (Engine engine : engines) {
+            if (!engine.supports(rows, cols, k)) continue;
+            double previous = 0, beforePrevious = 0; // costs of the two shallower depths of this engine
+            boolean previousMeasured = false;
+            for (int depth : depthOptions(engine, empty)) {
+                Double cost = costs.get(key(engine.name(), rows, cols, k, empty, depth));
+                boolean measured = cost != null;
+                if (cost == null && previousMeasured && beforePrevious > 0) {
+                    // not measured yet: assume it grows like the last step did, but at least like the move count says,
+                    // so the next deeper search gets tried live
+                    cost = previous * Math.max(minGrowth, previous / beforePrevious);
+                }
+                Decision option = new Decision(engine, depth, cost == null ? -1 : cost.longValue());
+                if (shallowest == null || depth < shallowest.depth) shallowest = option;
+                if (cost == null) continue;
+                beforePrevious = previous;
+                previous = cost;
+                previousMeasured = measured;
+                if (cheapest == null || cost < cheapest.expectedNanos) cheapest = option;
+                if (cost <= budgetNanos && (best == null || better(option, best, empty))) best = option;
+            }
+        }
+        if (best != null) return best;
+        if (cheapest != null) return cheapest;
+        if (shallowest == null) throw new IllegalArgumentException("no engine supports " + rows + "x" + cols + ", k=" + k);
+        return shallowest;
+    }
+
+    // exact beats inexact and the cheapest exact one wins; below full depth: deeper, then better quality, then cheaper
+    private static boolean better(Decision option, Decision best, int empty) {
+        boolean exact = isExact(option, empty), bestExact = isExact(best, empty);
+        if (exact != bestExact) return exact;
+        if (!exact) {
+            if (option.depth != best.depth) return option.depth > best.depth;
+            int quality = option.engineImpl.quality(), bestQuality = best.engineImpl.quality();
+            if (quality != bestQuality) return quality > bestQuality;
+        }
+        return option.expectedNanos < best.expectedNanos;
+    }
+
+    private static boolean isExact(Decision option, int empty) {
+        return option.depth >= empty || option.engineImpl.solvesExactly(empty);
+    }
+
+    // every depth up to MAX_SEARCH_DEPTH (depth = empty cells is exact); only the full depth for an engine that is
+    // exact anyway at this stage
+    private static List<Integer> depthOptions(Engine engine, int empty) {
+        List<Integer> depths = new ArrayList<>();
+        if (engine.solvesExactly(empty)) {
+            depths.add(empty);
+            return depths;
+        }
+        for (int depth = 1; depth <= Math.min(empty, MAX_SEARCH_DEPTH); depth++) depths.add(depth);
+        return depths;
+    }
+
+    // 2. Cost table
+    public void record(String engine, int rows, int cols, int k, int empty, int depth, long nanos) {
+        costs.merge(key(engine, rows, cols, k, empty, depth), (double) nanos,
+                (old, sample) -> old + EWMA_WEIGHT * (sample - old));
+    }
+
+    // a short benchmark: a random position per empty-cell bucket, every engine and depth, after one warm-up pass
+    public void calibrate(int rows, int cols, int k, Random random) {
+        int cells = rows * cols;
+        List<char[][]> positions = new ArrayList<>();
+        if (cells > 16) positions.add(emptyState(rows, cols)); // small boards get it as their top bucket
+        for (int bucket = bucketCount(cells); bucket >= 1; bucket--) {
+            char[][] state = randomPosition(rows, cols, k, minEmpty(bucket, cells), random);
+            if (state != null) positions.add(state);
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (Engine engine : engines) {
+                if (!engine.supports(rows, cols, k)) continue;
+                for (char[][] state : positions) {
+                    int empty = TicTacToeHybridSearch.countEmpty(state);
+                    long previous = 0;
+                    for (int depth : depthOptions(engine, empty)) {
+                        long start = System.nanoTime();
+                        engine.findBestMove(TicTacToeThreatSpaceSearch.copyState(state), k, depth);
+                        long nanos = Math.max(1, System.nanoTime() - start);
+                        if (pass == 1) costs.put(key(engine.name(), rows, cols, k, empty, depth), (double) nanos);
+                        // the next depth costs about as many times more as this one did; leave it unmeasured if too slow
+                        double growth = previous == 0 ? 1 : Math.max(1, nanos / (double) previous);
+                        if (nanos * growth > CALIBRATION_LIMIT_NANOS) break;
+                        previous = nanos;
+                    }
+                }
+            }
+        }
+    }
+
+    public String costTable() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(costs).forEach((key, nanos) -> sb.append(String.format("%-40s %12.0f ns%n", key, nanos)));
+        return sb.toString();
+    }
+
+    // exact empty-cell counts on small boards, 16 buckets on big ones
+    private static int bucketCount(int cells) {
+        return Math.min(cells, 16);
+    }
+
+    // the empty board keeps its own entry: with one candidate move it costs far less than an opening
+    private static int bucket(int empty, int cells) {
+        if (cells <= 16 || empty == cells) return empty;
+        return Math.max(1, (empty * 16 + cells - 1) / cells);
+    }
+
+    private static int minEmpty(int bucket, int cells) {
+        return cells <= 16 ? bucket : (bucket - 1) * cells / 16 + 1;
+    }
+
+    private static String key(String engine, int rows, int cols, int k, int empty, int depth) {
+        return engine + "|" + rows + "x" + cols + "x" + k + "|" + bucket(empty, rows * cols) + "|" + depth;
+    }
+
+    public static class Decision {
+        public final String engine;
+        public final int depth;
+        public final long expectedNanos; // -1 when nothing is known about the option yet
+        public int[] move;
+        final Engine engineImpl;
+
+        Decision(Engine engine, int depth, long expectedNanos) {
+            this.engine = engine.name();
+            this.depth = depth;
+            this.expectedNanos = expectedNanos;
+            this.engineImpl = engine;
+        }
+    }
+
+    // Helper functions
+    private interface Search {
+        int[] findBestMove(char[][] state, int k, int depth);
+    }
+
+    // maxSide 3 means the fixed 3x3 game, any other board needs a k the pattern evaluator can score;
+    // exactBelow is the empty-cell count from which the engine is exact
+    private static Engine engine(String name, int maxSide, int exactBelow, int quality, Search search) {
+        return new Engine() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public boolean supports(int rows, int cols, int k) {
+                if (maxSide == 3) return rows == 3 && cols == 3 && k == 3;
+                return rows <= maxSide && cols <= maxSide && k <= TicTacToePatternEvaluator.MAX_WIN_LENGTH;
+            }
+
+            @Override
+            public boolean solvesExactly(int empty) {
+                return empty <= exactBelow;
+            }
+
+            @Override
+            public int quality() {
+                return quality;
+            }
+
+            @Override
+            public int[] findBestMove(char[][] state, int k, int depth) {
+                return search.findBestMove(state, k, depth);
+            }
+        };
+    }
+
+    // alternating stones, nobody has won yet; null if no such position turned up
+    private static char[][] randomPosition(int rows, int cols, int k, int empty, Random random) {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            char[][] state = emptyState(rows, cols);
+            int stones = rows * cols - empty;
+            for (int s = 0; s < stones; s++) {
+                int cell;
+                do {
+                    cell = random.nextInt(rows * cols);
+                } while (state[cell / cols][cell % cols] != EMPTY_CELL);
+                state[cell / cols][cell % cols] = s % 2 == 0 ? MAX_PLAYER : MIN_PLAYER;
+            }
+            if (TicTacToeThreatSpaceSearch.findWinner(state, k) == EMPTY_CELL) return state;
+        }
+        return null;
+    }
+
+    private static char[][] emptyState(int rows, int cols) {
+        char[][] state = new char[rows][cols];
+        for (char[] row : state) {
+            Arrays.fill(row, EMPTY_CELL);
+        }
+        return state;
+    }
+
+    private static boolean isOver(char[][] state, int k) {
+        return TicTacToeThreatSpaceSearch.findWinner(state, k) != EMPTY_CELL || TicTacToeHybridSearch.countEmpty(state) == 0;
+    }
+}
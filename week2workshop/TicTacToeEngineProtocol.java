@@ -0,0 +1,261 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+
+/**
+ * A line based text protocol (in the spirit of UCI) around the alpha-beta engine,
+ * so that a match manager or GUI can drive it over stdin/stdout instead of the interactive prompts.
+ *
+ * Commands:
+ *   isready                                  -> readyok
+ *   position startpos [moves 11 00 ...]      moves are "rc" pairs, X moves first
+ *   position board <9 cells of x/o/.> [x|o]  cells row by row, then the side to move
+ *   go depth N | go movetime MS | go infinite
+ *   stop                                     stop the running search and print bestmove
+ *   quit
+ *
+ * The search runs on its own thread and prints "info depth .. score .. nodes .. nps .. pv .."
+ * after every finished iteration, then "bestmove rc".
+ */
+public class TicTacToeEngineProtocol {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+
+    private char[][] state = emptyState();
+    private char sideToMove = MAX_PLAYER;
+    private Search search;
+    private Thread searchThread;
+
+    public static void main(String[] args) throws IOException {
+        new TicTacToeEngineProtocol().run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) continue;
+            switch (tokens[0]) {
+                case "isready":
+                    send("readyok");
+                    break;
+                case "position":
+                    stopSearch();
+                    parsePosition(tokens);
+                    break;
+                case "go":
+                    stopSearch();
+                    startSearch(tokens);
+                    break;
+                case "stop":
+                    stopSearch();
+                    break;
+                case "quit":
+                    stopSearch();
+                    return;
+                default:
+                    send("info string unknown command " + tokens[0]);
+            }
+        }
+        stopSearch();
+    }
+
+    private void parsePosition(String[] tokens) {
+        char[][] newState = emptyState();
+        char side = MAX_PLAYER;
+        try {
+            if (tokens.length >= 2 && tokens[1].equals("startpos")) {
+                for (int i = 3; i < tokens.length && tokens[2].equals("moves"); i++) {
+                    int row = tokens[i].charAt(0) - '0';
+                    int col = tokens[i].charAt(1) - '0';
+                    // no move may follow a finished game
+                    if (tokens[i].length() != 2 || TicTacToeAlphaBetaPruning.isGameOver(newState)
+                            || !TicTacToeAlphaBetaPruning.isValidMove(newState, row, col)) {
+                        send("info string illegal move " + tokens[i]);
+                        return;
+                    }
+                    newState[row][col] = side;
+                    side = other(side);
+                }
+            } else if (tokens.length >= 3 && tokens[1].equals("board") && tokens[2].length() == 9) {
+                for (int i = 0; i < 9; i++) {
+                    char c = Character.toUpperCase(tokens[2].charAt(i));
+                    newState[i / 3][i % 3] = c == MAX_PLAYER || c == MIN_PLAYER ? c : EMPTY_CELL;
+                }
+                if (tokens.length >= 4) {
+                    side = Character.toUpperCase(tokens[3].charAt(0)) == MIN_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+                }
+            } else {
+                send("info string invalid position");
+                return;
+            }
+        } catch (StringIndexOutOfBoundsException e) {
+            send("info string invalid position");
+            return;
+        }
+        state = newState;
+        sideToMove = side;
+    }
+
+    private void startSearch(String[] tokens) {
+        int maxDepth = 9;
+        long moveTimeMillis = -1;
+        boolean infinite = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth":
+                        maxDepth = Integer.parseInt(tokens[++i]);
+                        break;
+                    case "movetime":
+                        moveTimeMillis = Long.parseLong(tokens[++i]);
+                        break;
+                    case "infinite":
+                        infinite = true;
+                        break;
+                    default:
+                        send("info string unknown go option " + tokens[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string invalid go command");
+            return;
+        }
+        long deadline = moveTimeMillis < 0 ? Long.MAX_VALUE : System.nanoTime() + moveTimeMillis * 1_000_000L;
+        search = new Search(TicTacToeAlphaBetaPruning.copyState(state), sideToMove, Math.max(1, maxDepth), deadline, infinite);
+        searchThread = new Thread(search, "search");
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    private void stopSearch() {
+        if (searchThread == null) return;
+        search.stopped = true;
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+        search = null;
+    }
+
+    private static synchronized void send(String message) {
+        System.out.println(message);
+        System.out.flush();
+    }
+
+    private static char[][] emptyState() {
+        char[][] s = new char[3][3];
+        for (char[] row : s) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+        return s;
+    }
+
+    private static char other(char player) {
+        return player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+    }
+
+    private static String moveText(int[] move) {
+        return "" + move[0] + move[1];
+    }
+
+    /**
+     * Iterative deepening alpha-beta (negamax form, score from the side to move) that can be stopped at any node.
+     * An iteration that was cut short is thrown away and the last finished one gives the best move.
+     */
+    static class Search implements Runnable {
+        private static final int WIN = 100; // a win at ply p scores WIN - p, so quicker wins are preferred
+
+        private final char[][] root;
+        private final char side;
+        private final int maxDepth;
+        private final long deadline;
+        private final boolean infinite;
+        volatile boolean stopped;
+        private long nodes;
+        private final int[][][] pv = new int[10][10][]; // triangular PV table
+        private final int[] pvLength = new int[10];
+
+        Search(char[][] root, char side, int maxDepth, long deadline, boolean infinite) {
+            this.root = root;
+            this.side = side;
+            this.maxDepth = maxDepth;
+            this.deadline = deadline;
+            this.infinite = infinite;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            List<int[]> rootMoves = TicTacToeAlphaBetaPruning.getValidMoves(root);
+            int[] bestMove = rootMoves.isEmpty() || TicTacToeAlphaBetaPruning.isGameOver(root) ? null : rootMoves.get(0);
+            int emptyCells = rootMoves.size();
+
+            for (int depth = 1; bestMove != null && depth <= Math.min(maxDepth, emptyCells) && !stopped; depth++) {
+                int score = negamax(root, side, depth, 0, -WIN - 1, WIN + 1);
+                if (stopped) break; // unfinished iteration
+                bestMove = pv[0][0];
+
+                long elapsed = Math.max(1, System.nanoTime() - start);
+                StringBuilder line = new StringBuilder("info depth ").append(depth)
+                        .append(" score ").append(score)
+                        .append(" nodes ").append(nodes)
+                        .append(" nps ").append(nodes * 1_000_000_000L / elapsed)
+                        .append(" pv");
+                for (int i = 0; i < pvLength[0]; i++) {
+                    line.append(' ').append(moveText(pv[0][i]));
+                }
+                send(line.toString());
+            }
+            // "go infinite" must not answer before it is told to stop
+            while (infinite && !stopped) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            send(bestMove == null ? "bestmove none" : "bestmove " + moveText(bestMove));
+        }
+
+        private int negamax(char[][] state, char player, int depth, int ply, int alpha, int beta) {
+            pvLength[ply] = ply;
+            if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) stopped = true;
+            if (stopped) return 0;
+
+            // a finished line always belongs to the player who just moved
+            if (TicTacToeAlphaBetaPruning.evaluate(state) != 0) return -(WIN - ply);
+            List<int[]> moves = TicTacToeAlphaBetaPruning.getValidMoves(state);
+            if (moves.isEmpty() || depth == 0) return 0;
+
+            // same tactical pre-check as the alpha-beta engine
+            int[][] lineCounts = TicTacToeAlphaBetaPruning.countLines(state);
+            List<int[]> threats = TicTacToeAlphaBetaPruning.findWinningCells(state, lineCounts, other(player));
+            if (TicTacToeAlphaBetaPruning.findWinningCells(state, lineCounts, player).isEmpty() && threats.size() == 1) {
+                moves = threats;
+            }
+
+            int best = Integer.MIN_VALUE;
+            for (int[] move : moves) {
+                char[][] nextState = TicTacToeAlphaBetaPruning.copyState(state);
+                nextState[move[0]][move[1]] = player;
+                int eval = -negamax(nextState, other(player), depth - 1, ply + 1, -beta, -alpha);
+                if (stopped) return 0;
+                if (eval > best) {
+                    best = eval;
+                    pv[ply][ply] = move;
+                    System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+                    pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+                }
+                alpha = Math.max(alpha, eval);
+                if (alpha >= beta) break;
+            }
+            return best;
+        }
+    }
+}
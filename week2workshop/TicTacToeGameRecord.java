@@ -0,0 +1,279 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Compact binary game records, so that millions of games can be logged and analysed later.
+ *
+ * File layout:
+ *   header  8 bytes: "TTTR", version (1), 3 reserved bytes
+ *   records 6 bytes each, fixed size so a file can be split anywhere on a record boundary:
+ *     byte 0    bits 0-3 number of moves (0-9), bits 4-5 result code, bit 6 first player (0 = X, 1 = O)
+ *     bytes 1-5 the moves, one cell index (row * 3 + col) per 4 bits, high nibble first
+ *
+ * The Writer only appends. The analysis side memory-maps the file and walks the records in parallel,
+ * so there is no parsing beyond a few bit operations per move.
+ *
+ * Usage: java TicTacToeGameRecord write <file> <games>
+ *        java TicTacToeGameRecord analyze <file>
+ */
+public class TicTacToeGameRecord {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 6;
+    private static final byte[] MAGIC = {'T', 'T', 'T', 'R'};
+    private static final byte VERSION = 1;
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    // result codes
+    public static final int RESULT_UNFINISHED = 0;
+    public static final int RESULT_X_WINS = 1;
+    public static final int RESULT_O_WINS = 2;
+    public static final int RESULT_DRAW = 3;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("write")) {
+            int games = Integer.parseInt(args[2]);
+            long start = System.nanoTime();
+            try (Writer writer = new Writer(Paths.get(args[1]))) {
+                Random random = new Random();
+                for (int i = 0; i < games; i++) {
+                    writer.append(playRandomGame(random));
+                }
+            }
+            System.out.printf("Wrote %d games in %d ms%n", games, (System.nanoTime() - start) / 1_000_000);
+        } else if (args.length == 2 && args[0].equals("analyze")) {
+            long start = System.nanoTime();
+            Analysis analysis = analyze(Paths.get(args[1]));
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            System.out.println(analysis.report());
+            System.out.printf("%d games in %d ms (%.1f MB/s)%n", analysis.games.sum(), elapsed / 1_000_000,
+                    analysis.games.sum() * (double) RECORD_SIZE * 1000 / elapsed);
+        } else {
+            System.out.println("Usage: java TicTacToeGameRecord write <file> <games> | analyze <file>");
+        }
+    }
+
+    // 1. One game in memory
+    public static class Game {
+        final char firstPlayer;
+        final byte[] cells; // row * 3 + col for each move, in order
+        final int result;
+
+        public Game(char firstPlayer, byte[] cells, int result) {
+            this.firstPlayer = firstPlayer;
+            this.cells = cells;
+            this.result = result;
+        }
+
+        // result code for a board, e.g. right after the game loop ends
+        public static int resultOf(char[][] state) {
+            int score = TicTacToeAlphaBetaPruning.evaluate(state);
+            if (score == 10) return RESULT_X_WINS;
+            if (score == -10) return RESULT_O_WINS;
+            return TicTacToeAlphaBetaPruning.getValidMoves(state).isEmpty() ? RESULT_DRAW : RESULT_UNFINISHED;
+        }
+    }
+
+    static void encode(Game game, ByteBuffer out) {
+        int moves = game.cells.length;
+        out.put((byte) (moves | game.result << 4 | (game.firstPlayer == MIN_PLAYER ? 1 << 6 : 0)));
+        for (int i = 0; i < 10; i += 2) {
+            int high = i < moves ? game.cells[i] : 0;
+            int low = i + 1 < moves ? game.cells[i + 1] : 0;
+            out.put((byte) (high << 4 | low));
+        }
+    }
+
+    static Game decode(ByteBuffer in, int offset) {
+        int head = in.get(offset);
+        int moves = head & 0x0F;
+        byte[] cells = new byte[moves];
+        for (int i = 0; i < moves; i++) {
+            int b = in.get(offset + 1 + i / 2);
+            cells[i] = (byte) ((i & 1) == 0 ? (b >> 4) & 0x0F : b & 0x0F);
+        }
+        return new Game((head & 0x40) != 0 ? MIN_PLAYER : MAX_PLAYER, cells, (head >> 4) & 0x03);
+    }
+
+    // 2. Append-only writer, safe to share between game threads
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+
+        public Writer(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.put(MAGIC).put(VERSION).put(new byte[3]).flip();
+                while (header.hasRemaining()) channel.write(header);
+            }
+        }
+
+        public synchronized void append(Game game) throws IOException {
+            buffer.clear();
+            encode(game, buffer);
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // 3. Memory-mapped parallel analysis
+    public static class Analysis {
+        final LongAdder games = new LongAdder();
+        final LongAdder[] results = newCounters(4);
+        final LongAdder[] firstMoves = newCounters(9);
+        final LongAdder[] openings = newCounters(81); // first move * 9 + second move
+        final LongAdder blunders = new LongAdder();
+        final LongAdder gamesWithBlunder = new LongAdder();
+
+        private static LongAdder[] newCounters(int n) {
+            LongAdder[] counters = new LongAdder[n];
+            for (int i = 0; i < n; i++) counters[i] = new LongAdder();
+            return counters;
+        }
+
+        String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("games %d: X wins %d, O wins %d, draws %d, unfinished %d%n", games.sum(),
+                    results[RESULT_X_WINS].sum(), results[RESULT_O_WINS].sum(), results[RESULT_DRAW].sum(),
+                    results[RESULT_UNFINISHED].sum()));
+            sb.append("first move frequency:\n");
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    sb.append(String.format("%8d", firstMoves[i * 3 + j].sum()));
+                }
+                sb.append('\n');
+            }
+            int top = 0;
+            for (int i = 1; i < openings.length; i++) {
+                if (openings[i].sum() > openings[top].sum()) top = i;
+            }
+            sb.append(String.format("most played opening: %d %d, %d %d (%d games)%n",
+                    top / 9 / 3, top / 9 % 3, top % 9 / 3, top % 9 % 3, openings[top].sum()));
+            sb.append(String.format("blunders %d in %d games", blunders.sum(), gamesWithBlunder.sum()));
+            return sb.toString();
+        }
+    }
+
+    public static Analysis analyze(Path file) throws IOException {
+        Analysis analysis = new Analysis();
+        // game-theoretic value by (side to move, base-3 board index), shared by all threads
+        int[] values = new int[2 * 19683];
+        java.util.Arrays.fill(values, UNKNOWN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            // one mapping can hold at most 2 GB, so map the file in slices of whole records
+            long recordsPerSlice = Integer.MAX_VALUE / RECORD_SIZE;
+            List<MappedByteBuffer> slices = new ArrayList<>();
+            for (long first = 0; first < records; first += recordsPerSlice) {
+                long count = Math.min(recordsPerSlice, records - first);
+                slices.add(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, count * RECORD_SIZE));
+            }
+            checkHeader(channel);
+
+            for (MappedByteBuffer slice : slices) {
+                int count = slice.capacity() / RECORD_SIZE;
+                // absolute reads on a mapped buffer are safe from many threads
+                IntStream.range(0, count).parallel().forEach(r -> analyzeGame(decode(slice, r * RECORD_SIZE), analysis, values));
+            }
+        }
+        return analysis;
+    }
+
+    private static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header.get(i) != MAGIC[i]) throw new IOException("not a game record file");
+        }
+        if (header.get(4) != VERSION) throw new IOException("unsupported game record version " + header.get(4));
+    }
+
+    private static void analyzeGame(Game game, Analysis analysis, int[] values) {
+        analysis.games.increment();
+        analysis.results[game.result].increment();
+        if (game.cells.length > 0) analysis.firstMoves[game.cells[0]].increment();
+        if (game.cells.length > 1) analysis.openings[game.cells[0] * 9 + game.cells[1]].increment();
+
+        // blunder: a move that makes the game-theoretic result worse for the player who made it
+        char[][] state = emptyState();
+        char player = game.firstPlayer;
+        int before = exactValue(state, player, values);
+        boolean blundered = false;
+        for (byte cell : game.cells) {
+            state[cell / 3][cell % 3] = player;
+            player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+            int after = exactValue(state, player, values);
+            boolean worse = player == MIN_PLAYER ? after < before : after > before; // player is now the opponent
+            if (worse) {
+                analysis.blunders.increment();
+                blundered = true;
+            }
+            before = after;
+        }
+        if (blundered) analysis.gamesWithBlunder.increment();
+    }
+
+    private static int exactValue(char[][] state, char sideToMove, int[] values) {
+        int key = sideToMove == MAX_PLAYER ? 0 : 1;
+        for (char[] row : state) {
+            for (char c : row) {
+                key = key * 3 + (c == MAX_PLAYER ? 1 : c == MIN_PLAYER ? 2 : 0);
+            }
+        }
+        int value = values[key];
+        if (value != UNKNOWN) return value;
+        value = sideToMove == MAX_PLAYER
+                ? TicTacToeAlphaBetaPruning.maxValue(state, 9, Integer.MIN_VALUE, Integer.MAX_VALUE)
+                : TicTacToeAlphaBetaPruning.minValue(state, 9, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        // a race only means two threads compute the same value
+        values[key] = value;
+        return value;
+    }
+
+    // Helper functions
+    private static Game playRandomGame(Random random) {
+        char[][] state = emptyState();
+        char first = random.nextBoolean() ? MAX_PLAYER : MIN_PLAYER;
+        char player = first;
+        List<Byte> cells = new ArrayList<>();
+        while (!TicTacToeAlphaBetaPruning.isGameOver(state)) {
+            List<int[]> moves = TicTacToeAlphaBetaPruning.getValidMoves(state);
+            int[] move = moves.get(random.nextInt(moves.size()));
+            state[move[0]][move[1]] = player;
+            cells.add((byte) (move[0] * 3 + move[1]));
+            player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        }
+        byte[] moves = new byte[cells.size()];
+        for (int i = 0; i < moves.length; i++) moves[i] = cells.get(i);
+        return new Game(first, moves, Game.resultOf(state));
+    }
+
+    private static char[][] emptyState() {
+        char[][] state = new char[3][3];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,261 @@
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Win check and evaluation code generated for one board geometry (rows x cols, k in a row), on bitboards
+ * (one long per player, bit row * cols + col, so up to 64 cells).
+ *
+ * For a geometry, the Java source of a class with every winning line written out as a constant mask is generated,
+ * compiled in memory with the system compiler and loaded as a hidden class. The loops over rows, columns and
+ * diagonals in evaluate / checkTerminalStateScore become straight-line code the JIT can compile like a
+ * hand-written 3x3 version. Kernels are cached per geometry.
+ * The evaluation is split into methods of MASKS_PER_METHOD masks each: HotSpot does not JIT-compile a method with
+ * more than 8000 bytes of bytecode, which one method for all masks of e.g. 8x8, k=3 (168 masks) would be.
+ * Without a compiler (a plain JRE) a loop over the same masks is used instead.
+ *
+ * The evaluation is the same as TicTacToeThreatSpaceSearch.evaluate: a window only one side can still use
+ * is worth 10^(stones-1), a full window is a win.
+ */
+public class TicTacToeGeometryKernel {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    public static final int WIN_SCORE = TicTacToeThreatSpaceSearch.WIN_SCORE;
+    private static final int MASKS_PER_METHOD = 24; // about 1.2 KB of bytecode per generated method
+    private static final Map<String, Kernel> KERNELS = new ConcurrentHashMap<>();
+    private static long sink; // keeps the benchmark loops from being optimised away
+
+    public interface Kernel {
+        boolean isWin(long stones);
+
+        // X's point of view
+        int evaluate(long xStones, long oStones);
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        long start = System.nanoTime();
+        Kernel kernel = forGeometry(rows, cols, k);
+        System.out.printf("%s for %dx%d, k=%d ready in %d ms%n", kernel.getClass().getSimpleName(), rows, cols, k,
+                (System.nanoTime() - start) / 1_000_000);
+
+        // random positions, checked against the general loop code, then timed
+        Random random = new Random(717);
+        int positions = 20000;
+        char[][][] states = new char[positions][][];
+        long[][] bits = new long[positions][];
+        for (int p = 0; p < positions; p++) {
+            char[][] state = new char[rows][cols];
+            for (char[] row : state) {
+                for (int j = 0; j < cols; j++) {
+                    int r = random.nextInt(5);
+                    row[j] = r == 0 ? MAX_PLAYER : r == 1 ? MIN_PLAYER : ' ';
+                }
+            }
+            states[p] = state;
+            bits[p] = toBitboards(state);
+            int expected = TicTacToeThreatSpaceSearch.evaluate(state, k);
+            int actual = kernel.evaluate(bits[p][0], bits[p][1]);
+            // a board with a line for both sides has no single right answer, skip those
+            boolean bothWin = kernel.isWin(bits[p][0]) && kernel.isWin(bits[p][1]);
+            if (!bothWin && expected != actual) {
+                throw new IllegalStateException("generated kernel differs from the loop code at position " + p);
+            }
+        }
+        for (int round = 0; round < 5; round++) {
+            long loopStart = System.nanoTime();
+            for (char[][] state : states) sink += TicTacToeThreatSpaceSearch.evaluate(state, k);
+            long loopTime = System.nanoTime() - loopStart;
+            long kernelStart = System.nanoTime();
+            for (long[] b : bits) sink += kernel.evaluate(b[0], b[1]);
+            long kernelTime = System.nanoTime() - kernelStart;
+            System.out.printf("round %d: loops %.0f ns, kernel %.0f ns per evaluation%n", round,
+                    loopTime / (double) positions, kernelTime / (double) positions);
+        }
+    }
+
+    // 1. Geometry helpers
+    public static long[] winningMasks(int rows, int cols, int k) {
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        List<Long> masks = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                for (int[] d : directions) {
+                    int endRow = i + d[0] * (k - 1), endCol = j + d[1] * (k - 1);
+                    if (endRow >= rows || endCol < 0 || endCol >= cols) continue;
+                    long mask = 0;
+                    for (int s = 0; s < k; s++) {
+                        mask |= 1L << ((i + d[0] * s) * cols + j + d[1] * s);
+                    }
+                    masks.add(mask);
+                }
+            }
+        }
+        long[] result = new long[masks.size()];
+        for (int i = 0; i < result.length; i++) result[i] = masks.get(i);
+        return result;
+    }
+
+    // {X stones, O stones}
+    public static long[] toBitboards(char[][] state) {
+        long x = 0, o = 0;
+        int cols = state[0].length;
+        for (int i = 0; i < state.length; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (state[i][j] == MAX_PLAYER) x |= 1L << (i * cols + j);
+                else if (state[i][j] == MIN_PLAYER) o |= 1L << (i * cols + j);
+            }
+        }
+        return new long[]{x, o};
+    }
+
+    private static int[] windowWeights(int k) {
+        int[] weights = new int[k + 1];
+        for (int c = 1; c <= k; c++) weights[c] = c == 1 ? 1 : weights[c - 1] * 10;
+        return weights;
+    }
+
+    // 2. Kernel lookup: generated when possible, cached per geometry
+    public static Kernel forGeometry(int rows, int cols, int k) {
+        if (rows * cols > 64) throw new IllegalArgumentException("bitboard kernels support at most 64 cells");
+        return KERNELS.computeIfAbsent(rows + "x" + cols + "x" + k, key -> {
+            long[] masks = winningMasks(rows, cols, k);
+            try {
+                Kernel generated = generate("TicTacToeGeometryKernel_" + rows + "_" + cols + "_" + k, masks, k);
+                if (generated != null) return generated;
+            } catch (ReflectiveOperationException | IllegalStateException | LinkageError e) {
+                // fall back to the loop kernel below
+            }
+            return new LoopKernel(masks, windowWeights(k));
+        });
+    }
+
+    static class LoopKernel implements Kernel {
+        private final long[] masks;
+        private final int[] weights;
+
+        LoopKernel(long[] masks, int[] weights) {
+            this.masks = masks;
+            this.weights = weights;
+        }
+
+        @Override
+        public boolean isWin(long stones) {
+            for (long mask : masks) {
+                if ((stones & mask) == mask) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int evaluate(long x, long o) {
+            if (isWin(x)) return WIN_SCORE;
+            if (isWin(o)) return -WIN_SCORE;
+            int score = 0;
+            for (long mask : masks) {
+                if ((o & mask) == 0) score += weights[Long.bitCount(x & mask)];
+                if ((x & mask) == 0) score -= weights[Long.bitCount(o & mask)];
+            }
+            return score;
+        }
+    }
+
+    // 3. Code generation
+    static String generateSource(String className, long[] masks, int k) {
+        int[] weights = windowWeights(k);
+        StringBuilder src = new StringBuilder();
+        src.append("public final class ").append(className).append(" implements TicTacToeGeometryKernel.Kernel {\n");
+        src.append("    private static final int[] W = {");
+        for (int c = 0; c <= k; c++) src.append(c > 0 ? ", " : "").append(weights[c]);
+        src.append("};\n\n");
+
+        src.append("    public boolean isWin(long s) {\n        return ");
+        for (int i = 0; i < masks.length; i++) {
+            String m = "0x" + Long.toHexString(masks[i]) + "L";
+            src.append(i > 0 ? "\n            || " : "").append("(s & ").append(m).append(") == ").append(m);
+        }
+        src.append(";\n    }\n\n");
+
+        // evaluate sums one method per block of masks, each small enough to be compiled
+        int blocks = Math.max(1, (masks.length + MASKS_PER_METHOD - 1) / MASKS_PER_METHOD);
+        src.append("    public int evaluate(long x, long o) {\n");
+        src.append("        if (isWin(x)) return ").append(WIN_SCORE).append(";\n");
+        src.append("        if (isWin(o)) return ").append(-WIN_SCORE).append(";\n");
+        src.append("        return ");
+        for (int b = 0; b < blocks; b++) src.append(b > 0 ? " + " : "").append("evaluate").append(b).append("(x, o)");
+        src.append(";\n    }\n");
+
+        for (int b = 0; b < blocks; b++) {
+            src.append("\n    private static int evaluate").append(b).append("(long x, long o) {\n");
+            src.append("        int score = 0;\n");
+            for (int i = b * MASKS_PER_METHOD; i < Math.min(masks.length, (b + 1) * MASKS_PER_METHOD); i++) {
+                String m = "0x" + Long.toHexString(masks[i]) + "L";
+                src.append("        if ((o & ").append(m).append(") == 0) score += W[Long.bitCount(x & ").append(m).append(")];\n");
+                src.append("        if ((x & ").append(m).append(") == 0) score -= W[Long.bitCount(o & ").append(m).append(")];\n");
+            }
+            src.append("        return score;\n    }\n");
+        }
+        src.append("}\n");
+        return src.toString();
+    }
+
+    private static Kernel generate(String className, long[] masks, int k) throws ReflectiveOperationException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) return null;
+        String source = generateSource(className, masks, k);
+
+        Map<String, ByteArrayOutputStream> classes = new ConcurrentHashMap<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(null, null, null);
+        ForwardingJavaFileManager<StandardJavaFileManager> fileManager = new ForwardingJavaFileManager<>(standard) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        classes.put(name, bytes);
+                        return bytes;
+                    }
+                };
+            }
+        };
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-g:none");
+        boolean ok = compiler.getTask(null, fileManager, null, options, null, Collections.singletonList(sourceFile)).call();
+        ByteArrayOutputStream bytes = classes.get(className);
+        if (!ok || bytes == null) return null;
+
+        // a hidden class: not visible by name, unloaded with the kernel
+        MethodHandles.Lookup lookup = MethodHandles.lookup()
+                .defineHiddenClass(bytes.toByteArray(), true);
+        try {
+            return (Kernel) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable t) {
+            throw new IllegalStateException("cannot create " + className, t);
+        }
+    }
+}
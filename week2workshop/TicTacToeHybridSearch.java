@@ -0,0 +1,219 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hybrid search: heuristic depth-limited search while the board is open, and an exact solver once the number of
+ * empty cells drops to a threshold, so late-game moves are provably right instead of "depth == 0 -> evaluate(state)".
+ *
+ * The exact solver is a bitboard negamax that only knows win (1), draw (0) and loss (-1), searched with the window
+ * [-1, 1] and a transposition table. The table is kept per board geometry across searches, so positions solved for
+ * one game are answered at once in the next; it is bounded: a table is cleared when it reaches MAX_TABLE_ENTRIES,
+ * and only the MAX_GEOMETRIES most recently used geometries keep one. Boards are two longs, so up to 64 cells;
+ * bigger boards always use the heuristic search.
+ *
+ * Usage: java TicTacToeHybridSearch [rows (default 4)] [cols (default 4)] [k (default 3)] [threshold (default 10)]
+ *        [depth (default 3)]   plays one game of the engine against itself and shows which search chose each move
+ */
+public class TicTacToeHybridSearch {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    private static final byte EXACT = 0, LOWER = 1, UPPER = 2;
+    // about 100 MB per geometry; a solve from 12 empty cells or fewer (see TicTacToeEngineDispatcher) reaches at most
+    // 3^12 positions, so it fits, and only much bigger solves ever start over with an empty table
+    private static final int MAX_TABLE_ENTRIES = 1 << 20;
+    private static final int MAX_GEOMETRIES = 4;
+    // solved positions per geometry, key {stones of the side to move, stones of the other side};
+    // access order + removeEldestEntry gives an LRU map, only used under synchronized (TABLES)
+    private static final Map<String, Map<Position, byte[]>> TABLES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<Position, byte[]>> eldest) {
+            return size() > MAX_GEOMETRIES;
+        }
+    };
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int threshold = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+        char[][] state = new char[rows][cols];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+        char player = MAX_PLAYER;
+        while (TicTacToeThreatSpaceSearch.findWinner(state, k) == EMPTY_CELL && countEmpty(state) > 0) {
+            int empty = countEmpty(state);
+            long start = System.nanoTime();
+            // the engine plays X, so O's move is found on the colour-swapped board
+            char[][] board = player == MAX_PLAYER ? state : swapPlayers(state);
+            int[] move = findBestMove(board, k, depth, threshold);
+            System.out.printf("%c plays %d %d (%s, %d empty, %.1f ms)%n", player, move[0], move[1],
+                    usesSolver(rows, cols, empty, threshold) ? "exact" : "heuristic", empty, (System.nanoTime() - start) / 1e6);
+            state[move[0]][move[1]] = player;
+            player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        }
+        char winner = TicTacToeThreatSpaceSearch.findWinner(state, k);
+        System.out.println(winner == EMPTY_CELL ? "Draw" : winner + " wins");
+    }
+
+    // 1. Hybrid entry point, plays X like the other engines
+    public static int[] findBestMove(char[][] state, int k, int depth, int threshold) {
+        int empty = countEmpty(state);
+        if (!usesSolver(state.length, state[0].length, empty, threshold)) {
+            if (state.length == 3 && state[0].length == 3 && k == 3) {
+                return TicTacToeAlphaBetaPruning.findBestMove(state, depth);
+            }
+            return TicTacToePatternEvaluator.findBestMove(state, k, depth);
+        }
+        return solveBestMove(state, k);
+    }
+
+    // the bitboard solver only fits 64 cells
+    public static boolean usesSolver(int rows, int cols, int empty, int threshold) {
+        return empty <= threshold && rows * cols <= 64;
+    }
+
+    // 2. Exact solver
+    // best move for X with a proven result; ties keep the first move found
+    public static int[] solveBestMove(char[][] state, int k) {
+        int rows = state.length, cols = state[0].length;
+        Solver solver = new Solver(rows, cols, k);
+        long[] bits = TicTacToeGeometryKernel.toBitboards(state);
+        long me = bits[0], opp = bits[1];
+
+        int[] bestMove = null;
+        int bestValue = -2;
+        for (int cell = 0; cell < rows * cols && bestValue < 1; cell++) {
+            long bit = 1L << cell;
+            if (((me | opp) & bit) != 0) continue;
+            long next = me | bit;
+            int value = solver.kernel.isWin(next) ? 1 : -solver.negamax(opp, next, -1, -bestValue);
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = new int[]{cell / cols, cell % cols};
+            }
+        }
+        return bestMove;
+    }
+
+    // 1 = the side to move wins, 0 = draw, -1 = loss
+    public static int solve(char[][] state, int k, char sideToMove) {
+        long[] bits = TicTacToeGeometryKernel.toBitboards(state);
+        Solver solver = new Solver(state.length, state[0].length, k);
+        return sideToMove == MAX_PLAYER ? solver.negamax(bits[0], bits[1], -1, 1) : solver.negamax(bits[1], bits[0], -1, 1);
+    }
+
+    static class Solver {
+        final TicTacToeGeometryKernel.Kernel kernel;
+        final Map<Position, byte[]> table; // {flag, value}
+        final long full;
+        final int cells;
+
+        Solver(int rows, int cols, int k) {
+            kernel = TicTacToeGeometryKernel.forGeometry(rows, cols, k);
+            synchronized (TABLES) {
+                table = TABLES.computeIfAbsent(rows + "x" + cols + "x" + k, key -> new ConcurrentHashMap<>());
+            }
+            cells = rows * cols;
+            full = cells == 64 ? -1L : (1L << cells) - 1;
+        }
+
+        // the other side has just moved and did not win
+        int negamax(long me, long opp, int alpha, int beta) {
+            long empty = full & ~(me | opp);
+            if (empty == 0) return 0;
+            Position key = new Position(me, opp);
+            byte[] entry = table.get(key);
+            if (entry != null) {
+                if (entry[0] == EXACT) return entry[1];
+                if (entry[0] == LOWER) alpha = Math.max(alpha, entry[1]);
+                else beta = Math.min(beta, entry[1]);
+                if (alpha >= beta) return entry[1];
+            }
+            int alphaStart = alpha;
+
+            // win at once if we can; if the opponent threatens two cells we lose, one cell we must block
+            long threats = 0;
+            for (long rest = empty; rest != 0; rest &= rest - 1) {
+                long bit = rest & -rest;
+                if (kernel.isWin(me | bit)) {
+                    store(key, new byte[]{EXACT, 1});
+                    return 1;
+                }
+                if (kernel.isWin(opp | bit)) threats |= bit;
+            }
+            int best;
+            if (Long.bitCount(threats) > 1) {
+                best = -1;
+            } else {
+                long moves = threats != 0 ? threats : empty;
+                best = -1;
+                for (long rest = moves; rest != 0; rest &= rest - 1) {
+                    long bit = rest & -rest;
+                    int value = -negamax(opp, me | bit, -beta, -alpha);
+                    if (value > best) best = value;
+                    if (best > alpha) alpha = best;
+                    if (alpha >= beta) break;
+                }
+            }
+            byte flag = best <= alphaStart ? UPPER : best >= beta ? LOWER : EXACT;
+            store(key, new byte[]{flag, (byte) best});
+            return best;
+        }
+
+        // a full table starts over instead of growing
+        private void store(Position key, byte[] entry) {
+            if (table.size() >= MAX_TABLE_ENTRIES) table.clear();
+            table.put(key, entry);
+        }
+    }
+
+    static final class Position {
+        final long me;
+        final long opp;
+
+        Position(long me, long opp) {
+            this.me = me;
+            this.opp = opp;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Position)) return false;
+            Position other = (Position) o;
+            return me == other.me && opp == other.opp;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(me * 0x9E3779B97F4A7C15L + opp);
+        }
+    }
+
+    // Helper functions
+    public static int countEmpty(char[][] state) {
+        int empty = 0;
+        for (char[] row : state) {
+            for (char c : row) {
+                if (c == EMPTY_CELL) empty++;
+            }
+        }
+        return empty;
+    }
+
+    private static char[][] swapPlayers(char[][] state) {
+        char[][] swapped = new char[state.length][state[0].length];
+        for (int i = 0; i < state.length; i++) {
+            for (int j = 0; j < state[i].length; j++) {
+                char c = state[i][j];
+                swapped[i][j] = c == MAX_PLAYER ? MIN_PLAYER : c == MIN_PLAYER ? MAX_PLAYER : c;
+            }
+        }
+        return swapped;
+    }
+}
@@ -0,0 +1,427 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * k-in-a-row on an unbounded plane. A char[rows][cols] cannot hold that, so the board is sparse:
+ * - stones live in a primitive open-addressing hash table, key = (row, col) packed into one long, no boxing
+ * - the bounding box of the stones is kept up to date (only used to print the board)
+ * - candidate moves are the empty cells near stones, and a win is checked only on the four lines through the last move
+ * - the search uses place/undo on the one board instead of copying it
+ * So memory and the cost of a search node grow with the number of stones, not with the area of the board.
+ */
+public class TicTacToeInfiniteBoard {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    public static final int WIN_SCORE = TicTacToeThreatSpaceSearch.WIN_SCORE;
+    // right, down, down-right, down-left
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final int CANDIDATE_DISTANCE = 2; // how far from a stone a move may be
+    private static final int MAX_BRANCHING = 12;     // only the best ordered candidates are searched
+    public static final int MAX_WIN_LENGTH = 8;      // window weights up to 10^7 still fit an int
+
+    private final int k;
+    private final int[] windowWeights;
+    private final LongByteTable stones = new LongByteTable(64);
+    private long[] history = new long[64];      // packed moves, for undo
+    private int[] boxHistory = new int[64 * 4]; // bounding box before each move
+    private int moveCount;
+    private int minRow, maxRow, minCol, maxCol;
+
+    public TicTacToeInfiniteBoard(int k) {
+        if (k > MAX_WIN_LENGTH) throw new IllegalArgumentException("k is at most " + MAX_WIN_LENGTH);
+        this.k = k;
+        windowWeights = new int[k + 1];
+        for (int c = 1; c <= k; c++) windowWeights[c] = c == 1 ? 1 : windowWeights[c - 1] * 10;
+    }
+
+    public static void main(String[] args) {
+        Scanner scanner = new Scanner(System.in);
+        char currentPlayer;
+
+        System.out.println("Welcome to k-in-a-row on an unbounded board vs Computer! ");
+        int k = readInt(scanner, "Enter how many in a row are needed to win (e.g., 5): ", 5, 3);
+        if (k > MAX_WIN_LENGTH) {
+            System.out.println("Win length can be at most " + MAX_WIN_LENGTH + ". Using " + MAX_WIN_LENGTH + ".");
+            k = MAX_WIN_LENGTH;
+        }
+        int depth = readInt(scanner, "Enter the difficulty level (depth for alpha-beta, e.g., 3): ", 3, 1);
+        TicTacToeInfiniteBoard board = new TicTacToeInfiniteBoard(k);
+
+        int firstMoveChooser = readInt(scanner, "Who should make the first move? (1 - Computer (X), 2 - You (O)): ", 1, 1);
+        if (firstMoveChooser == 2) {
+            System.out.println("You (O) will make the first move.");
+            currentPlayer = MIN_PLAYER;
+        } else {
+            System.out.println("Computer (X) will make the first move.");
+            currentPlayer = MAX_PLAYER;
+        }
+
+        while (true) {
+            board.print();
+            int row = 0, col = 0;
+            if (currentPlayer == MAX_PLAYER) {
+                System.out.println("Computer (MAX - X) is thinking...");
+                int[] bestMove = findBestMove(board, depth);
+                row = bestMove[0];
+                col = bestMove[1];
+                System.out.println("Computer plays " + row + " " + col);
+            } else {
+                System.out.println("Your turn (MIN - O). Enter row and column, any integers (e.g., 0 1):");
+                boolean validInput = false;
+                while (!validInput) {
+                    try {
+                        row = scanner.nextInt();
+                        col = scanner.nextInt();
+                        if (board.get(row, col) == EMPTY_CELL) {
+                            validInput = true;
+                        } else {
+                            System.out.println("Invalid move. Cell is not empty. Try again:");
+                        }
+                    } catch (java.util.InputMismatchException e) {
+                        System.out.println("Invalid input format. Enter row and column as numbers (e.g., 0 1). Try again:");
+                        scanner.next(); // consume the invalid input
+                    }
+                }
+            }
+            board.place(row, col, currentPlayer);
+
+            if (board.isWinningMove(row, col)) {
+                board.print();
+                System.out.println(currentPlayer == MAX_PLAYER ? "Computer (MAX - X) wins!" : "You (MIN - O) win!");
+                break;
+            }
+            currentPlayer = currentPlayer == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        }
+        scanner.close();
+    }
+
+    private static int readInt(Scanner scanner, String prompt, int defaultValue, int minValue) {
+        System.out.print(prompt);
+        try {
+            int value = scanner.nextInt();
+            if (value >= minValue) {
+                return value;
+            }
+            System.out.println("Value should be at least " + minValue + ". Using default " + defaultValue + ".");
+        } catch (java.util.InputMismatchException e) {
+            System.out.println("Invalid input. Using default " + defaultValue + ".");
+            scanner.next(); // consume the invalid input
+        }
+        return defaultValue;
+    }
+
+    // the bounding box of the stones plus a margin of CANDIDATE_DISTANCE
+    public void print() {
+        int top = minRow - CANDIDATE_DISTANCE, bottom = maxRow + CANDIDATE_DISTANCE;
+        int left = minCol - CANDIDATE_DISTANCE, right = maxCol + CANDIDATE_DISTANCE;
+        StringBuilder sb = new StringBuilder("     ");
+        for (int j = left; j <= right; j++) {
+            sb.append(String.format("%3d", j));
+        }
+        System.out.println(sb);
+        for (int i = top; i <= bottom; i++) {
+            sb.setLength(0);
+            sb.append(String.format("%4d |", i));
+            for (int j = left; j <= right; j++) {
+                char c = get(i, j);
+                sb.append(' ').append(c == EMPTY_CELL ? '.' : c).append(' ');
+            }
+            System.out.println(sb);
+        }
+        System.out.printf("%d stones, hash table capacity %d%n", moveCount, stones.capacity());
+    }
+
+    // 1. Board: sparse stones, bounding box, place / undo
+    public char get(int row, int col) {
+        return toPlayer(stones.get(pack(row, col)));
+    }
+
+    public void place(int row, int col, char player) {
+        long key = pack(row, col);
+        if (stones.get(key) != 0) throw new IllegalArgumentException("cell " + row + " " + col + " is not empty");
+        if (moveCount == history.length) {
+            history = java.util.Arrays.copyOf(history, moveCount * 2);
+            boxHistory = java.util.Arrays.copyOf(boxHistory, moveCount * 8);
+        }
+        history[moveCount] = key;
+        boxHistory[moveCount * 4] = minRow;
+        boxHistory[moveCount * 4 + 1] = maxRow;
+        boxHistory[moveCount * 4 + 2] = minCol;
+        boxHistory[moveCount * 4 + 3] = maxCol;
+        if (moveCount == 0) {
+            minRow = maxRow = row;
+            minCol = maxCol = col;
+        } else {
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+        moveCount++;
+        stones.put(key, player == MAX_PLAYER ? (byte) 1 : (byte) 2);
+    }
+
+    // takes back the last move
+    public void undo() {
+        moveCount--;
+        stones.remove(history[moveCount]);
+        minRow = boxHistory[moveCount * 4];
+        maxRow = boxHistory[moveCount * 4 + 1];
+        minCol = boxHistory[moveCount * 4 + 2];
+        maxCol = boxHistory[moveCount * 4 + 3];
+    }
+
+    public int stoneCount() {
+        return moveCount;
+    }
+
+    // {minRow, maxRow, minCol, maxCol}, meaningless while the board is empty
+    public int[] boundingBox() {
+        return new int[]{minRow, maxRow, minCol, maxCol};
+    }
+
+    // 2. Incremental win check: only the four lines through (row, col)
+    public boolean isWinningMove(int row, int col) {
+        char player = get(row, col);
+        return player != EMPTY_CELL && wouldWin(row, col, player);
+    }
+
+    // would a stone of player at (row, col) make k in a row (the cell itself is not looked at)
+    public boolean wouldWin(int row, int col, char player) {
+        for (int[] d : DIRECTIONS) {
+            int count = 1
+                    + countDirection(row, col, d[0], d[1], player)
+                    + countDirection(row, col, -d[0], -d[1], player);
+            if (count >= k) return true;
+        }
+        return false;
+    }
+
+    private int countDirection(int row, int col, int dr, int dc, char player) {
+        int count = 0;
+        int r = row + dr, c = col + dc;
+        while (count < k && get(r, c) == player) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+
+    // 3. Candidate moves: empty cells within CANDIDATE_DISTANCE of a stone, closer and more crowded cells first
+    public List<int[]> getCandidateMoves() {
+        List<int[]> moves = new ArrayList<>();
+        if (moveCount == 0) {
+            moves.add(new int[]{0, 0, 0});
+            return moves;
+        }
+        LongByteTable near = new LongByteTable(moveCount * 16);
+        for (int slot = 0; slot < stones.capacity(); slot++) {
+            if (stones.valueAt(slot) == 0) continue;
+            int row = unpackRow(stones.keyAt(slot)), col = unpackCol(stones.keyAt(slot));
+            for (int i = row - CANDIDATE_DISTANCE; i <= row + CANDIDATE_DISTANCE; i++) {
+                for (int j = col - CANDIDATE_DISTANCE; j <= col + CANDIDATE_DISTANCE; j++) {
+                    long key = pack(i, j);
+                    if (stones.get(key) != 0) continue;
+                    int closeness = CANDIDATE_DISTANCE + 1 - Math.max(Math.abs(i - row), Math.abs(j - col));
+                    near.put(key, (byte) Math.min(Byte.MAX_VALUE, near.get(key) + closeness));
+                }
+            }
+        }
+        for (int slot = 0; slot < near.capacity(); slot++) {
+            if (near.valueAt(slot) == 0) continue;
+            moves.add(new int[]{unpackRow(near.keyAt(slot)), unpackCol(near.keyAt(slot)), near.valueAt(slot)});
+        }
+        moves.sort((a, b) -> Integer.compare(b[2], a[2]));
+        return moves;
+    }
+
+    // 4. Evaluation from X's point of view, like TicTacToeThreatSpaceSearch.evaluate: a window of k cells only one
+    // side can still use is worth 10^(stones-1). Only windows through stones are visited, and each window only from
+    // its first stone, so nothing is counted twice. The number of windows grows with the stones, so the sum is
+    // clamped: no position without k in a row scores like a win.
+    public int evaluate() {
+        long score = 0;
+        for (int slot = 0; slot < stones.capacity(); slot++) {
+            if (stones.valueAt(slot) == 0) continue;
+            int row = unpackRow(stones.keyAt(slot)), col = unpackCol(stones.keyAt(slot));
+            for (int[] d : DIRECTIONS) {
+                for (int t = 0; t < k; t++) { // the stone is cell t of the window
+                    int startRow = row - d[0] * t, startCol = col - d[1] * t;
+                    int x = 0, o = 0;
+                    boolean firstStone = true;
+                    for (int s = 0; s < k && firstStone; s++) {
+                        char c = get(startRow + d[0] * s, startCol + d[1] * s);
+                        if (c == EMPTY_CELL) continue;
+                        if (s < t) firstStone = false;
+                        else if (c == MAX_PLAYER) x++;
+                        else o++;
+                    }
+                    if (!firstStone) continue;
+                    if (x == k) return WIN_SCORE;
+                    if (o == k) return -WIN_SCORE;
+                    if (o == 0) score += windowWeights[x];
+                    if (x == 0) score -= windowWeights[o];
+                }
+            }
+        }
+        return (int) Math.max(-(WIN_SCORE - 1), Math.min(WIN_SCORE - 1, score));
+    }
+
+    // 5. Alpha-beta (negamax form) with place/undo, plays X like the other engines
+    public static int[] findBestMove(TicTacToeInfiniteBoard board, int depth) {
+        List<int[]> moves = board.orderedMoves(MAX_PLAYER);
+        int[] bestMove = null;
+        int alpha = -Integer.MAX_VALUE;
+        for (int[] move : moves) {
+            board.place(move[0], move[1], MAX_PLAYER);
+            int eval = board.isWinningMove(move[0], move[1])
+                    ? WIN_SCORE + depth
+                    : -board.negamax(MIN_PLAYER, depth - 1, -Integer.MAX_VALUE, -alpha);
+            board.undo();
+            if (bestMove == null || eval > alpha) {
+                alpha = eval;
+                bestMove = new int[]{move[0], move[1]};
+            }
+        }
+        return bestMove;
+    }
+
+    // score from player's point of view; the last move did not win
+    private int negamax(char player, int depth, int alpha, int beta) {
+        if (depth == 0) {
+            int score = evaluate();
+            return player == MAX_PLAYER ? score : -score;
+        }
+        char other = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        int best = -Integer.MAX_VALUE;
+        for (int[] move : orderedMoves(player)) {
+            place(move[0], move[1], player);
+            // a quicker win (more depth left) scores a little higher
+            int eval = isWinningMove(move[0], move[1]) ? WIN_SCORE + depth : -negamax(other, depth - 1, -beta, -alpha);
+            undo();
+            best = Math.max(best, eval);
+            alpha = Math.max(alpha, eval);
+            if (alpha >= beta) break;
+        }
+        return best;
+    }
+
+    // a winning move alone, else the forced block alone, else the best MAX_BRANCHING candidates
+    private List<int[]> orderedMoves(char player) {
+        List<int[]> moves = getCandidateMoves();
+        char other = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        int[] block = null;
+        for (int[] move : moves) {
+            if (wouldWin(move[0], move[1], player)) return List.of(move);
+            if (block == null && wouldWin(move[0], move[1], other)) block = move;
+        }
+        if (block != null) return List.of(block);
+        return moves.size() > MAX_BRANCHING ? moves.subList(0, MAX_BRANCHING) : moves;
+    }
+
+    // Helper functions
+    public static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    public static int unpackRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackCol(long key) {
+        return (int) key;
+    }
+
+    private static char toPlayer(byte stone) {
+        return stone == 1 ? MAX_PLAYER : stone == 2 ? MIN_PLAYER : EMPTY_CELL;
+    }
+
+    /**
+     * Open-addressing hash table from long to a non-zero byte (0 means "no entry"), linear probing,
+     * at most half full. Removal shifts the following entries of the probe run back, so no tombstones pile up
+     * during a search that places and takes back stones all the time.
+     */
+    static final class LongByteTable {
+        private long[] keys;
+        private byte[] values;
+        private int mask;
+        private int shift;
+        private int size;
+
+        LongByteTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            values = new byte[capacity];
+            mask = capacity - 1;
+            shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        private int home(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        byte get(long key) {
+            for (int i = home(key); values[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return 0;
+        }
+
+        void put(long key, byte value) {
+            if ((size + 1) * 2 > keys.length) grow();
+            int i = home(key);
+            while (values[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (values[i] == 0) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void remove(long key) {
+            int i = home(key);
+            while (values[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+            if (values[i] == 0) return;
+            values[i] = 0;
+            size--;
+            // backward shift: move up every later entry of the run that may live in the hole
+            for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+                int h = home(keys[j]);
+                if (((j - h) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            byte[] oldValues = values;
+            allocate(keys.length * 2);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        long keyAt(int slot) {
+            return keys[slot];
+        }
+
+        byte valueAt(int slot) {
+            return values[slot];
+        }
+    }
+}
@@ -181,19 +181,24 @@ public class TicTacToeMinimaxEvaluateImproveByAI {
     }
 
     private static int calculateHeuristicScore(char[][] state) {
-        int score = 0;
-
         // 评分规则权重
         final int TWO_IN_ROW_SCORE = 3;  // 二连威胁
         final int SINGLE_IN_ROW_SCORE = 1; // 单子潜力
         final int CENTER_BONUS = 2;     // 中心控制
 
+        return calculateHeuristicScore(state, TWO_IN_ROW_SCORE, SINGLE_IN_ROW_SCORE, CENTER_BONUS);
+    }
+
+    // same score with the weights passed in, used by TicTacToeWeightTuning to try other weight sets
+    public static int calculateHeuristicScore(char[][] state, int twoInRowScore, int singleScore, int centerBonus) {
+        int score = 0;
+
         // 评估所有行、列、对角线
-        score += evaluateLines(state, TWO_IN_ROW_SCORE, SINGLE_IN_ROW_SCORE);
+        score += evaluateLines(state, twoInRowScore, singleScore);
 
         // 中心位置奖励
-        if (state[1][1] == MAX_PLAYER) score += CENTER_BONUS;
-        else if (state[1][1] == MIN_PLAYER) score -= CENTER_BONUS;
+        if (state[1][1] == MAX_PLAYER) score += centerBonus;
+        else if (state[1][1] == MIN_PLAYER) score -= centerBonus;
 
         return score;
     }
@@ -0,0 +1,222 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A shared move cache in front of the alpha-beta engine, for a server where many games reach the same positions.
+ *
+ * - key: board + side to move + engine configuration (engine name and depth), value: best move and its score
+ * - bounded, least recently used entry is evicted first
+ * - request coalescing: if the same search is already running, later callers wait for it instead of searching again
+ * - hit, miss and coalesced counters for the hit rate
+ *
+ * All methods are thread-safe.
+ */
+public class TicTacToeMoveCache {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+
+    private final int depth;
+    private final Map<String, MoveResult> entries;
+    private final ConcurrentHashMap<String, CompletableFuture<MoveResult>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public TicTacToeMoveCache(int capacity, int depth) {
+        this.depth = depth;
+        // access order + removeEldestEntry gives an LRU map; it is only used under synchronized (entries)
+        this.entries = new LinkedHashMap<String, MoveResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MoveResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // simulate many concurrent games that mostly follow popular opening lines
+        TicTacToeMoveCache cache = new TicTacToeMoveCache(1024, 9);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        long start = System.nanoTime();
+        for (int game = 0; game < 2000; game++) {
+            final long seed = game;
+            pool.execute(() -> playGame(cache, new Random(seed)));
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.printf("2000 games in %d ms, %s%n", (System.nanoTime() - start) / 1_000_000, cache.stats());
+    }
+
+    private static void playGame(TicTacToeMoveCache cache, Random random) {
+        char[][] state = emptyState();
+        char player = MAX_PLAYER;
+        while (!TicTacToeAlphaBetaPruning.isGameOver(state)) {
+            int[] move;
+            if (player == MAX_PLAYER) {
+                MoveResult result = cache.getBestMove(state, player);
+                move = new int[]{result.row, result.col};
+            } else {
+                List<int[]> moves = TicTacToeAlphaBetaPruning.getValidMoves(state);
+                move = moves.get(random.nextInt(moves.size()));
+            }
+            state[move[0]][move[1]] = player;
+            player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        }
+    }
+
+    // 1. Lookup with request coalescing
+    public MoveResult getBestMove(char[][] state, char sideToMove) {
+        if (TicTacToeAlphaBetaPruning.isGameOver(state)) {
+            throw new IllegalArgumentException("the game is over, there is no move to find");
+        }
+        TicTacToeSearchEvents.CacheLookupEvent event = new TicTacToeSearchEvents.CacheLookupEvent();
+        long allocated = 0;
+        if (event.isEnabled()) {
+            allocated = TicTacToeSearchEvents.allocatedBytes();
+            event.begin();
+        }
+        String key = cacheKey(state, sideToMove);
+        MoveResult cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            recordLookup(event, state, "hit", allocated);
+            return cached;
+        }
+
+        CompletableFuture<MoveResult> future = new CompletableFuture<>();
+        CompletableFuture<MoveResult> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            MoveResult result = running.join();
+            recordLookup(event, state, "coalesced", allocated);
+            return result;
+        }
+        try {
+            // another thread may have finished the same search between our lookup and putIfAbsent
+            MoveResult result = lookup(key);
+            if (result == null) {
+                misses.increment();
+                result = search(state, sideToMove);
+                synchronized (entries) {
+                    entries.put(key, result);
+                }
+                recordLookup(event, state, "miss", allocated);
+            } else {
+                hits.increment();
+                recordLookup(event, state, "hit", allocated);
+            }
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private void recordLookup(TicTacToeSearchEvents.CacheLookupEvent event, char[][] state, String outcome, long allocated) {
+        if (!event.isEnabled()) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.position = TicTacToeSearchEvents.position(state);
+            event.outcome = outcome;
+            event.cacheHits = hits.sum();
+            event.allocatedBytes = TicTacToeSearchEvents.allocatedBytes() - allocated;
+            event.commit();
+        }
+    }
+
+    private MoveResult lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private String cacheKey(char[][] state, char sideToMove) {
+        StringBuilder sb = new StringBuilder(24);
+        for (char[] row : state) {
+            sb.append(row);
+        }
+        return sb.append('|').append(sideToMove).append("|alphabeta|").append(depth).toString();
+    }
+
+    // 2. The actual search (the engine only plays X, so O's move is found on the colour-swapped board)
+    private MoveResult search(char[][] state, char sideToMove) {
+        char[][] board = sideToMove == MAX_PLAYER ? TicTacToeAlphaBetaPruning.copyState(state) : swapPlayers(state);
+        int[] move = TicTacToeAlphaBetaPruning.findBestMoveWithScore(board, depth); // {row, col, score}
+        return new MoveResult(move[0], move[1], sideToMove == MAX_PLAYER ? move[2] : -move[2]);
+    }
+
+    // 3. Metrics
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    // a coalesced request did not run its own search, so it counts as a hit here
+    public double hitRate() {
+        long saved = hits.sum() + coalesced.sum();
+        long total = saved + misses.sum();
+        return total == 0 ? 0.0 : (double) saved / total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public String stats() {
+        return String.format("size %d, hits %d, misses %d, coalesced %d, hit rate %.1f%%",
+                size(), hitCount(), missCount(), coalescedCount(), hitRate() * 100);
+    }
+
+    // Helper functions
+    private static char[][] emptyState() {
+        char[][] state = new char[3][3];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, ' ');
+        }
+        return state;
+    }
+
+    private static char[][] swapPlayers(char[][] state) {
+        char[][] swapped = new char[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                char c = state[i][j];
+                swapped[i][j] = c == MAX_PLAYER ? MIN_PLAYER : c == MIN_PLAYER ? MAX_PLAYER : c;
+            }
+        }
+        return swapped;
+    }
+
+    public static class MoveResult {
+        public final int row;
+        public final int col;
+        public final int score; // from X's point of view, like evaluate()
+
+        MoveResult(int row, int col, int score) {
+            this.row = row;
+            this.col = col;
+            this.score = score;
+        }
+    }
+}
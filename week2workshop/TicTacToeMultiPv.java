@@ -0,0 +1,48 @@
+import java.util.List;
+
+/**
+ * Multi-PV demo: the best k moves for X with their scores and principal variations, from
+ * TicTacToeAlphaBetaPruning.findBestMoves, for a few positions (e.g. to show a player the alternatives to a move).
+ *
+ * Usage: java TicTacToeMultiPv [k (default 3)] [depth (default 9)]
+ */
+public class TicTacToeMultiPv {
+
+    private static final char EMPTY_CELL = ' ';
+
+    // rows separated by '/', '.' for an empty cell; X is to move in all of them
+    private static final String[] POSITIONS = {
+            ".../.../...",   // empty board
+            "O../.X./...",   // X in the centre, O in a corner
+            "X.O/.O./..X",   // X has to block the diagonal
+            "XO./.X./..O",   // X can make a fork
+    };
+
+    public static void main(String[] args) {
+        int k = Math.max(1, args.length > 0 ? Integer.parseInt(args[0]) : 3);
+        int depth = Math.max(1, Math.min(9, args.length > 1 ? Integer.parseInt(args[1]) : 9));
+
+        for (String position : POSITIONS) {
+            char[][] state = parse(position);
+            System.out.println(position + ":");
+            List<TicTacToeAlphaBetaPruning.ScoredMove> lines = TicTacToeAlphaBetaPruning.findBestMoves(state, depth, k);
+            for (int i = 0; i < lines.size(); i++) {
+                TicTacToeAlphaBetaPruning.ScoredMove line = lines.get(i);
+                StringBuilder sb = new StringBuilder();
+                for (int[] move : line.pv) {
+                    sb.append(' ').append(move[0]).append(move[1]);
+                }
+                System.out.printf("  %d. %d %d  score %3d  pv%s%n", i + 1, line.row, line.col, line.score, sb);
+            }
+        }
+    }
+
+    private static char[][] parse(String position) {
+        String[] rows = position.split("/");
+        char[][] state = new char[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            state[i] = rows[i].replace('.', EMPTY_CELL).toCharArray();
+        }
+        return state;
+    }
+}
@@ -0,0 +1,292 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pattern-table evaluation for k-in-a-row on an m x n board.
+ *
+ * Every window of k cells (rows, columns and both diagonals) is kept as a base-3 code (0 empty, 1 X, 2 O per cell).
+ * The score of every possible code is worked out once, so evaluating a window is one table lookup:
+ * - a window holding both colours is dead and scores 0
+ * - otherwise it scores by how many stones it still misses (one missing, two missing...), and a bit less with gaps
+ * - an open shape lies in more windows than one blocked at the edge, so open shapes add up to more automatically
+ *
+ * place/remove only touch the windows through the changed cell (at most 4k of them), so the total score is kept
+ * up to date for the cost of a few additions per move instead of a full board scan per leaf.
+ */
+public class TicTacToePatternEvaluator {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    public static final int WIN_SCORE = TicTacToeThreatSpaceSearch.WIN_SCORE;
+    public static final int MAX_WIN_LENGTH = 8; // the score table has 3^k entries
+
+    // shape scores by number of stones a live window still misses, e.g. for k = 5: index 1 is a four, 2 a three
+    private static final int[] SHAPE_SCORES = {0, 2000, 150, 12, 1, 1, 1, 1};
+    private static final int BROKEN_PERCENT = 60; // a shape with gaps is worth this share of the solid one
+
+    private final int rows;
+    private final int cols;
+    private final int k;
+    private final char[][] board;
+    private final int[] codes;          // current base-3 code of every window
+    private final int[][] cellWindows;  // windows through each cell (row * cols + col)
+    private final int[][] cellPowers;   // 3^offset of the cell inside each of those windows
+    private final int[] table;          // score of every code, from X's point of view
+    private final int[] shapeScores;    // SHAPE_SCORES scaled so that all windows together stay below WIN_SCORE
+    private final int allX;
+    private final int allO;
+    private int total;
+    private int completedX;
+    private int completedO;
+
+    public TicTacToePatternEvaluator(int rows, int cols, int k) {
+        if (k > MAX_WIN_LENGTH) throw new IllegalArgumentException("k is at most " + MAX_WIN_LENGTH);
+        this.rows = rows;
+        this.cols = cols;
+        this.k = k;
+        this.board = new char[rows][cols];
+        for (char[] row : board) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+
+        // 1. Windows and the cells they cover
+        List<int[]> windows = new ArrayList<>(); // {startRow, startCol, direction}
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                for (int d = 0; d < DIRECTIONS.length; d++) {
+                    int endRow = i + DIRECTIONS[d][0] * (k - 1), endCol = j + DIRECTIONS[d][1] * (k - 1);
+                    if (endRow < rows && endCol >= 0 && endCol < cols) windows.add(new int[]{i, j, d});
+                }
+            }
+        }
+        codes = new int[windows.size()];
+        List<List<int[]>> perCell = new ArrayList<>();
+        for (int c = 0; c < rows * cols; c++) perCell.add(new ArrayList<>());
+        int power = 1;
+        int[] powers = new int[k];
+        for (int s = 0; s < k; s++) {
+            powers[s] = power;
+            power *= 3;
+        }
+        for (int w = 0; w < windows.size(); w++) {
+            int[] window = windows.get(w);
+            for (int s = 0; s < k; s++) {
+                int r = window[0] + DIRECTIONS[window[2]][0] * s, c = window[1] + DIRECTIONS[window[2]][1] * s;
+                perCell.get(r * cols + c).add(new int[]{w, powers[s]});
+            }
+        }
+        cellWindows = new int[rows * cols][];
+        cellPowers = new int[rows * cols][];
+        for (int c = 0; c < rows * cols; c++) {
+            List<int[]> list = perCell.get(c);
+            cellWindows[c] = new int[list.size()];
+            cellPowers[c] = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                cellWindows[c][i] = list.get(i)[0];
+                cellPowers[c][i] = list.get(i)[1];
+            }
+        }
+
+        // 2. Score table for every code
+        // even if every window held the best shape, the total must not reach a win
+        shapeScores = SHAPE_SCORES.clone();
+        long best = (long) codes.length * SHAPE_SCORES[1];
+        if (best >= WIN_SCORE) {
+            for (int m = 1; m < shapeScores.length; m++) {
+                shapeScores[m] = (int) Math.max(1, SHAPE_SCORES[m] * (long) (WIN_SCORE - 1) / best);
+            }
+        }
+        table = new int[power];
+        int x = 0, o = 0;
+        for (int s = 0; s < k; s++) {
+            x += powers[s];
+            o += 2 * powers[s];
+        }
+        allX = x;
+        allO = o;
+        for (int code = 0; code < power; code++) {
+            table[code] = scoreShape(code);
+        }
+    }
+
+    private int scoreShape(int code) {
+        int xCount = 0, oCount = 0, first = -1, last = -1;
+        for (int s = 0, rest = code; s < k; s++, rest /= 3) {
+            int digit = rest % 3;
+            if (digit == 0) continue;
+            if (digit == 1) xCount++;
+            else oCount++;
+            if (first < 0) first = s;
+            last = s;
+        }
+        if (xCount > 0 && oCount > 0) return 0; // dead window
+        int stones = xCount + oCount;
+        if (stones == 0 || stones == k) return 0; // completed windows are counted separately
+        int score = shapeScores[k - stones];
+        if (last - first + 1 > stones) score = score * BROKEN_PERCENT / 100; // gaps inside the shape
+        return xCount > 0 ? score : -score;
+    }
+
+    // 3. Incremental updates
+    public void place(int row, int col, char player) {
+        int digit = player == MAX_PLAYER ? 1 : 2;
+        int cell = row * cols + col;
+        board[row][col] = player;
+        for (int i = 0; i < cellWindows[cell].length; i++) {
+            int w = cellWindows[cell][i];
+            total -= table[codes[w]];
+            codes[w] += digit * cellPowers[cell][i];
+            total += table[codes[w]];
+            if (codes[w] == allX) completedX++;
+            else if (codes[w] == allO) completedO++;
+        }
+    }
+
+    public void remove(int row, int col) {
+        char player = board[row][col];
+        if (player == EMPTY_CELL) return;
+        int digit = player == MAX_PLAYER ? 1 : 2;
+        int cell = row * cols + col;
+        board[row][col] = EMPTY_CELL;
+        for (int i = 0; i < cellWindows[cell].length; i++) {
+            int w = cellWindows[cell][i];
+            if (codes[w] == allX) completedX--;
+            else if (codes[w] == allO) completedO--;
+            total -= table[codes[w]];
+            codes[w] -= digit * cellPowers[cell][i];
+            total += table[codes[w]];
+        }
+    }
+
+    public void load(char[][] state) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                remove(i, j);
+                if (state[i][j] != EMPTY_CELL) place(i, j, state[i][j]);
+            }
+        }
+    }
+
+    // X's point of view, like TicTacToeThreatSpaceSearch.evaluate
+    public int score() {
+        if (completedX > 0) return WIN_SCORE;
+        if (completedO > 0) return -WIN_SCORE;
+        return total;
+    }
+
+    public char[][] board() {
+        return board;
+    }
+
+    public static int evaluate(char[][] state, int k) {
+        TicTacToePatternEvaluator evaluator = new TicTacToePatternEvaluator(state.length, state[0].length, k);
+        evaluator.load(state);
+        return evaluator.score();
+    }
+
+    // 4. Alpha-beta on one board with make/unmake, scored by the pattern table
+    public static int[] findBestMove(char[][] state, int k, int depth) {
+        TicTacToePatternEvaluator evaluator = new TicTacToePatternEvaluator(state.length, state[0].length, k);
+        evaluator.load(state);
+        int[] bestMove = null;
+        int alpha = Integer.MIN_VALUE;
+        for (int[] move : evaluator.orderedMoves(MAX_PLAYER)) {
+            evaluator.place(move[0], move[1], MAX_PLAYER);
+            int eval = evaluator.alphaBeta(MIN_PLAYER, depth - 1, alpha, Integer.MAX_VALUE);
+            evaluator.remove(move[0], move[1]);
+            if (bestMove == null || eval > alpha) {
+                alpha = eval;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    private int alphaBeta(char player, int depth, int alpha, int beta) {
+        int score = score();
+        // a quicker win (more depth left) scores a little higher
+        if (score == WIN_SCORE) return score + depth;
+        if (score == -WIN_SCORE) return score - depth;
+        if (depth == 0) return score;
+        List<int[]> moves = orderedMoves(player);
+        if (moves.isEmpty()) return score;
+
+        int best = player == MAX_PLAYER ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int[] move : moves) {
+            place(move[0], move[1], player);
+            int eval = alphaBeta(player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER, depth - 1, alpha, beta);
+            remove(move[0], move[1]);
+            if (player == MAX_PLAYER) {
+                best = Math.max(best, eval);
+                alpha = Math.max(alpha, eval);
+            } else {
+                best = Math.min(best, eval);
+                beta = Math.min(beta, eval);
+            }
+            if (beta <= alpha) break;
+        }
+        return best;
+    }
+
+    // candidate moves, best pattern gain for the mover first (the gain is cheap to get with place/remove)
+    private List<int[]> orderedMoves(char player) {
+        List<int[]> moves = TicTacToeThreatSpaceSearch.getCandidateMoves(board);
+        char other = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+        int sign = player == MAX_PLAYER ? 1 : -1;
+        int before = total;
+        for (int i = 0; i < moves.size(); i++) {
+            int[] move = moves.get(i);
+            place(move[0], move[1], player);
+            int gain = completedX + completedO > 0 ? WIN_SCORE : sign * (total - before);
+            remove(move[0], move[1]);
+            // a cell that is good for the opponent is a good block as well
+            place(move[0], move[1], other);
+            int threat = completedX + completedO > 0 ? WIN_SCORE / 2 : sign * (before - total);
+            remove(move[0], move[1]);
+            moves.set(i, new int[]{move[0], move[1], gain + threat});
+        }
+        moves.sort((a, b) -> Integer.compare(b[2], a[2]));
+        return moves;
+    }
+
+    // quick check that the incremental score always matches a fresh scan, and a speed comparison
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        TicTacToePatternEvaluator evaluator = new TicTacToePatternEvaluator(size, size, k);
+        Random random = new Random(717);
+        long updates = 0;
+        long checkNanos = 0;
+        long start = System.nanoTime();
+        for (int game = 0; game < 200; game++) {
+            List<int[]> played = new ArrayList<>();
+            char player = MAX_PLAYER;
+            while (evaluator.score() != WIN_SCORE && evaluator.score() != -WIN_SCORE && played.size() < size * size) {
+                int row, col;
+                do {
+                    row = random.nextInt(size);
+                    col = random.nextInt(size);
+                } while (evaluator.board[row][col] != EMPTY_CELL);
+                evaluator.place(row, col, player);
+                played.add(new int[]{row, col});
+                updates++;
+                player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+                if (played.size() % 25 == 0) {
+                    long checkStart = System.nanoTime();
+                    if (evaluator.score() != evaluate(evaluator.board, k)) {
+                        throw new IllegalStateException("incremental score differs from a fresh scan");
+                    }
+                    checkNanos += System.nanoTime() - checkStart;
+                }
+            }
+            for (int i = played.size() - 1; i >= 0; i--) {
+                evaluator.remove(played.get(i)[0], played.get(i)[1]);
+                updates++;
+            }
+        }
+        System.out.printf("%d incremental updates checked, %.0f ns per update%n", updates, (System.nanoTime() - start - checkNanos) / (double) updates);
+    }
+}
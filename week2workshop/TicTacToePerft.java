@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft for the game tree: counts the nodes at every depth, the finished games and the unique positions,
+ * using getValidMoves / makeMove / isGameOver of TicTacToeAlphaBetaPruning, and checks them against the known values.
+ * It is a regression check for any new board representation and a speed benchmark for the move generator.
+ * Only the node and game count is timed; the unique positions are collected afterwards as a separate check.
+ *
+ * Usage: java TicTacToePerft [depth (default 9)] [threads (default: all cores)]
+ */
+public class TicTacToePerft {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+
+    // nodes at exactly depth 1..9 from the empty board (games that ended earlier are not counted)
+    private static final long[] EXPECTED_NODES = {1, 9, 72, 504, 3024, 15120, 54720, 148176, 200448, 127872};
+    private static final long EXPECTED_GAMES = 255168;
+    private static final int EXPECTED_POSITIONS = 5478;
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        depth = Math.max(0, Math.min(9, depth));
+
+        char[][] state = new char[3][3];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+
+        long start = System.nanoTime();
+        Counts counts = perftParallel(state, MAX_PLAYER, depth, threads);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        int positions = countPositions(state, MAX_PLAYER, depth);
+
+        boolean ok = true;
+        for (int d = 0; d <= depth; d++) {
+            boolean match = counts.nodesAtDepth[d] == EXPECTED_NODES[d];
+            ok &= match;
+            System.out.printf("depth %d: %8d nodes %s%n", d, counts.nodesAtDepth[d], match ? "ok" : "expected " + EXPECTED_NODES[d]);
+        }
+        if (depth == 9) {
+            // finished games and unique positions are only complete for the full tree
+            boolean gamesMatch = counts.games == EXPECTED_GAMES;
+            boolean positionsMatch = positions == EXPECTED_POSITIONS;
+            ok &= gamesMatch && positionsMatch;
+            System.out.printf("games:     %8d %s%n", counts.games, gamesMatch ? "ok" : "expected " + EXPECTED_GAMES);
+            System.out.printf("positions: %8d %s%n", positions, positionsMatch ? "ok" : "expected " + EXPECTED_POSITIONS);
+        }
+        System.out.printf("%d nodes in %.1f ms with %d threads, %d nodes/sec%n",
+                counts.totalNodes(), elapsed / 1e6, threads, counts.totalNodes() * 1_000_000_000L / elapsed);
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // 1. Split the count at the root: one task per first move
+    public static Counts perftParallel(char[][] state, char player, int depth, int threads)
+            throws InterruptedException, ExecutionException {
+        Counts total = new Counts(depth);
+        total.nodesAtDepth[0]++;
+        if (depth == 0 || TicTacToeAlphaBetaPruning.isGameOver(state)) {
+            if (TicTacToeAlphaBetaPruning.isGameOver(state)) total.games++;
+            return total;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Counts>> results = new ArrayList<>();
+            for (int[] move : TicTacToeAlphaBetaPruning.getValidMoves(state)) {
+                char[][] nextState = TicTacToeAlphaBetaPruning.copyState(state);
+                TicTacToeAlphaBetaPruning.makeMove(nextState, move[0], move[1], player);
+                results.add(pool.submit(() -> {
+                    Counts counts = new Counts(depth);
+                    perft(nextState, other(player), depth, 1, counts);
+                    return counts;
+                }));
+            }
+            for (Future<Counts> result : results) {
+                total.add(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return total;
+    }
+
+    // 2. Plain recursive count
+    public static void perft(char[][] state, char player, int depth, int ply, Counts counts) {
+        counts.nodesAtDepth[ply]++;
+        if (TicTacToeAlphaBetaPruning.isGameOver(state)) {
+            counts.games++;
+            return;
+        }
+        if (ply == depth) return;
+
+        for (int[] move : TicTacToeAlphaBetaPruning.getValidMoves(state)) {
+            char[][] nextState = TicTacToeAlphaBetaPruning.copyState(state);
+            TicTacToeAlphaBetaPruning.makeMove(nextState, move[0], move[1], player);
+            perft(nextState, other(player), depth, ply + 1, counts);
+        }
+    }
+
+    // 3. Unique positions up to depth, outside the timed count: a position is only expanded the first time it is seen,
+    // keyed by its base-3 code (0 empty, 1 X, 2 O per cell)
+    public static int countPositions(char[][] state, char player, int depth) {
+        boolean[] seen = new boolean[19683];
+        return countPositions(state, player, depth, 0, seen);
+    }
+
+    private static int countPositions(char[][] state, char player, int depth, int ply, boolean[] seen) {
+        int code = 0;
+        for (char[] row : state) {
+            for (char c : row) {
+                code = code * 3 + (c == MAX_PLAYER ? 1 : c == MIN_PLAYER ? 2 : 0);
+            }
+        }
+        if (seen[code]) return 0;
+        seen[code] = true;
+        int count = 1;
+        if (ply == depth || TicTacToeAlphaBetaPruning.isGameOver(state)) return count;
+        for (int[] move : TicTacToeAlphaBetaPruning.getValidMoves(state)) {
+            char[][] nextState = TicTacToeAlphaBetaPruning.copyState(state);
+            TicTacToeAlphaBetaPruning.makeMove(nextState, move[0], move[1], player);
+            count += countPositions(nextState, other(player), depth, ply + 1, seen);
+        }
+        return count;
+    }
+
+    private static char other(char player) {
+        return player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+    }
+
+    public static class Counts {
+        final long[] nodesAtDepth;
+        long games;
+
+        Counts(int depth) {
+            this.nodesAtDepth = new long[depth + 1];
+        }
+
+        void add(Counts other) {
+            for (int d = 0; d < nodesAtDepth.length; d++) {
+                nodesAtDepth[d] += other.nodesAtDepth[d];
+            }
+            games += other.games;
+        }
+
+        long totalNodes() {
+            long sum = 0;
+            for (long n : nodesAtDepth) sum += n;
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Proof-number search solver for yes/no questions like "is this position a forced win for X?".
+ * Depth-first variant (df-pn) with a transposition table, so memory stays bounded by the table, not by the tree.
+ *
+ * - OR node (attacker to move): proof number = min over children, disproof number = sum over children
+ * - AND node (defender to move): proof number = sum over children, disproof number = min over children
+ * - a draw counts as a disproof, the attacker has to win
+ * - the search gives up (UNKNOWN) after maxNodes node expansions or when the table holds maxTableEntries positions
+ *
+ * Works on any m x n board with k in a row, using the helpers of TicTacToeThreatSpaceSearch.
+ * On boards bigger than 5x5 the attacker only tries cells near the stones (the defender always tries every cell),
+ * so a proof is still a real proof, but a disproof only means no such win exists.
+ *
+ * Usage: java TicTacToeProofNumberSearch [size (default 4)] [k (default 3)] [maxNodes (default 10000000)]
+ */
+public class TicTacToeProofNumberSearch {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    private static final long INF = 1_000_000_000L;
+    private static final int SMALL_BOARD_AREA = 25;
+
+    public enum Status { PROVEN, DISPROVEN, UNKNOWN }
+
+    public static class Result {
+        public Status status;
+        public int[] move;       // a winning move when the attacker is to move and the position is proven
+        public long nodes;       // node expansions
+        public int tableSize;    // positions in the transposition table at the end
+        public long proofSize;   // nodes in the proof tree (or disproof tree)
+        public long millis;
+
+        @Override
+        public String toString() {
+            return status + (move != null ? " (move " + move[0] + " " + move[1] + ")" : "")
+                    + ", nodes " + nodes + ", table " + tableSize + ", proof size " + proofSize + ", " + millis + " ms";
+        }
+    }
+
+    private final char[][] board;
+    private final int k;
+    private final char attacker;
+    private final boolean restrictAttackerMoves;
+    private final long[][][] zobrist;
+    private final Map<Long, long[]> table = new HashMap<>(); // hash -> {proof number, disproof number}
+    private final long maxNodes;
+    private final int maxTableEntries;
+    private long hash;
+    private int emptyCells;
+    private long nodes;
+    private boolean aborted;
+
+    private TicTacToeProofNumberSearch(char[][] state, int k, char attacker, long maxNodes, int maxTableEntries) {
+        this.board = TicTacToeThreatSpaceSearch.copyState(state);
+        this.k = k;
+        this.attacker = attacker;
+        this.maxNodes = maxNodes;
+        this.maxTableEntries = maxTableEntries;
+        this.restrictAttackerMoves = board.length * board[0].length > SMALL_BOARD_AREA;
+        Random random = new Random(717);
+        zobrist = new long[board.length][board[0].length][2];
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board[i].length; j++) {
+                zobrist[i][j][0] = random.nextLong();
+                zobrist[i][j][1] = random.nextLong();
+                if (board[i][j] == EMPTY_CELL) emptyCells++;
+                else hash ^= zobrist[i][j][board[i][j] == MAX_PLAYER ? 0 : 1];
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long maxNodes = args.length > 2 ? Long.parseLong(args[2]) : 10_000_000L;
+
+        char[][] state = new char[size][size];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+        System.out.printf("Is the empty %dx%d board (%d in a row) a forced win for X to move?%n", size, size, k);
+        System.out.println(solve(state, k, MAX_PLAYER, MAX_PLAYER, maxNodes, 4_000_000));
+    }
+
+    // 1. Entry point
+    public static Result solve(char[][] state, int k, char attacker, char sideToMove, long maxNodes, int maxTableEntries) {
+        long start = System.nanoTime();
+        TicTacToeProofNumberSearch search = new TicTacToeProofNumberSearch(state, k, attacker, maxNodes, maxTableEntries);
+        Result result = new Result();
+
+        char winner = TicTacToeThreatSpaceSearch.findWinner(state, k);
+        if (winner != EMPTY_CELL || search.emptyCells == 0) {
+            result.status = winner == attacker ? Status.PROVEN : Status.DISPROVEN;
+        } else {
+            search.mid(sideToMove, INF, INF);
+            long[] root = search.lookup(search.hash);
+            result.status = search.aborted ? Status.UNKNOWN
+                    : root[0] == 0 ? Status.PROVEN : root[1] == 0 ? Status.DISPROVEN : Status.UNKNOWN;
+            if (result.status != Status.UNKNOWN) {
+                result.proofSize = search.treeSize(sideToMove, result.status == Status.PROVEN, new HashSet<>());
+            }
+            if (result.status == Status.PROVEN && sideToMove == attacker) {
+                result.move = search.provenMove();
+            }
+        }
+        result.nodes = search.nodes;
+        result.tableSize = search.table.size();
+        result.millis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    // 2. df-pn: search below the current node until its numbers reach one of the thresholds
+    private void mid(char toMove, long thPn, long thDn) {
+        if (++nodes > maxNodes || table.size() > maxTableEntries) {
+            aborted = true;
+            return;
+        }
+        boolean orNode = toMove == attacker;
+        List<int[]> moves = movesFor(toMove);
+        if (moves.isEmpty()) {
+            table.put(hash, new long[]{INF, 0}); // full board, a draw
+            return;
+        }
+        long[] childKeys = expand(toMove, moves);
+
+        while (true) {
+            long pn = orNode ? INF : 0;
+            long dn = orNode ? 0 : INF;
+            int best = -1;
+            long bestValue = INF, secondValue = INF;
+            for (int i = 0; i < childKeys.length; i++) {
+                long[] child = lookup(childKeys[i]);
+                // OR node: pick by proof number, AND node: pick by disproof number
+                long value = orNode ? child[0] : child[1];
+                if (orNode) {
+                    pn = Math.min(pn, child[0]);
+                    dn = Math.min(INF, dn + child[1]);
+                } else {
+                    pn = Math.min(INF, pn + child[0]);
+                    dn = Math.min(dn, child[1]);
+                }
+                if (value < bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = i;
+                } else if (value < secondValue) {
+                    secondValue = value;
+                }
+            }
+            table.put(hash, new long[]{pn, dn});
+            if (pn >= thPn || dn >= thDn || aborted) return;
+
+            long[] child = lookup(childKeys[best]);
+            long childThPn, childThDn;
+            if (orNode) {
+                childThPn = Math.min(thPn, secondValue + 1);
+                childThDn = thDn - dn + child[1];
+            } else {
+                childThPn = thPn - pn + child[0];
+                childThDn = Math.min(thDn, secondValue + 1);
+            }
+            int[] move = moves.get(best);
+            makeMove(move, toMove);
+            mid(opponent(toMove), childThPn, childThDn);
+            unmakeMove(move, toMove);
+        }
+    }
+
+    // children that are already decided go straight into the table, everything else starts at (1, 1)
+    private long[] expand(char toMove, List<int[]> moves) {
+        char other = opponent(toMove);
+        // if the opponent can complete a line next move, every move except a block (or our own win) loses at once
+        List<int[]> opponentWins = TicTacToeThreatSpaceSearch.findCompletionCells(board, other, k);
+        long[] keys = new long[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            int[] move = moves.get(i);
+            makeMove(move, toMove);
+            keys[i] = hash;
+            if (TicTacToeThreatSpaceSearch.isWinningMove(board, move[0], move[1], k)) {
+                table.put(hash, toMove == attacker ? new long[]{0, INF} : new long[]{INF, 0});
+            } else if (!opponentWins.isEmpty() && !(opponentWins.size() == 1 && sameCell(opponentWins.get(0), move))) {
+                table.put(hash, other == attacker ? new long[]{0, INF} : new long[]{INF, 0});
+            } else if (emptyCells == 0) {
+                table.put(hash, new long[]{INF, 0});
+            }
+            unmakeMove(move, toMove);
+        }
+        return keys;
+    }
+
+    // 3. Size of the proof (or disproof) tree: one child at the nodes where the winner chooses, all at the others
+    private long treeSize(char toMove, boolean proof, Set<Long> seen) {
+        if (!seen.add(hash)) return 0;
+        long size = 1;
+        boolean chooserToMove = (toMove == attacker) == proof;
+        for (int[] move : movesFor(toMove)) {
+            makeMove(move, toMove);
+            boolean win = TicTacToeThreatSpaceSearch.isWinningMove(board, move[0], move[1], k);
+            boolean leaf = win || emptyCells == 0;
+            boolean solved;
+            if (win) {
+                solved = (toMove == attacker) == proof;
+            } else if (leaf) {
+                solved = !proof; // a draw
+            } else {
+                long[] child = lookup(hash);
+                solved = proof ? child[0] == 0 : child[1] == 0;
+            }
+            if (solved || !chooserToMove) {
+                size += leaf ? 1 : treeSize(opponent(toMove), proof, seen);
+            }
+            unmakeMove(move, toMove);
+            if (solved && chooserToMove) break;
+        }
+        return size;
+    }
+
+    private int[] provenMove() {
+        for (int[] move : movesFor(attacker)) {
+            makeMove(move, attacker);
+            boolean proven = lookup(hash)[0] == 0;
+            unmakeMove(move, attacker);
+            if (proven) return move;
+        }
+        return null;
+    }
+
+    // Helper functions
+    private List<int[]> movesFor(char toMove) {
+        if (toMove == attacker && restrictAttackerMoves) {
+            return TicTacToeThreatSpaceSearch.getCandidateMoves(board);
+        }
+        return TicTacToeThreatSpaceSearch.getValidMoves(board);
+    }
+
+    private long[] lookup(long key) {
+        long[] entry = table.get(key);
+        return entry != null ? entry : new long[]{1, 1};
+    }
+
+    private void makeMove(int[] move, char player) {
+        board[move[0]][move[1]] = player;
+        hash ^= zobrist[move[0]][move[1]][player == MAX_PLAYER ? 0 : 1];
+        emptyCells--;
+    }
+
+    private void unmakeMove(int[] move, char player) {
+        board[move[0]][move[1]] = EMPTY_CELL;
+        hash ^= zobrist[move[0]][move[1]][player == MAX_PLAYER ? 0 : 1];
+        emptyCells++;
+    }
+
+    private static char opponent(char player) {
+        return player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+    }
+
+    private static boolean sameCell(int[] a, int[] b) {
+        return a[0] == b[0] && a[1] == b[1];
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Java Flight Recorder events for the search, so slow moves can be found afterwards in a continuous recording.
+ *
+ * - tictactoe.Search: one TicTacToeAlphaBetaPruning.findBestMove / findBestMoveWithinBudget call
+ * - tictactoe.Iteration: one iterative-deepening iteration of the node-budget search
+ * - tictactoe.CacheLookup: one TicTacToeMoveCache lookup (hit, miss or coalesced)
+ *
+ * Every event has the position, its duration, and the bytes the searching thread allocated meanwhile; search events
+ * also carry depth, nodes and beta cutoffs. With recording off a search pays for an isEnabled() check per event:
+ * the position string and the allocation counter are only read for events that will be recorded.
+ *
+ * On a server, e.g.: java -XX:StartFlightRecording:filename=search.jfr ...   then: jfr print --events tictactoe.Search search.jfr
+ * A threshold for the events (only keep moves slower than N ms) can be set in a .jfc settings file.
+ *
+ * Usage: java TicTacToeSearchEvents [output file (default search.jfr)]   records a few games and prints the slowest moves
+ */
+public class TicTacToeSearchEvents {
+
+    private static final char EMPTY_CELL = ' ';
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    @Name("tictactoe.Search")
+    @Label("Search")
+    @Category("Tic-Tac-Toe")
+    @Description("One best-move search")
+    @StackTrace(false)
+    public static class SearchEvent extends Event {
+        @Label("Position")
+        String position;
+        @Label("Depth")
+        @Description("Search depth, or the last finished iteration of a node-budget search")
+        int depth;
+        @Label("Move")
+        String move;
+        @Label("Nodes")
+        long nodes;
+        @Label("Cutoffs")
+        long cutoffs;
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    @Name("tictactoe.Iteration")
+    @Label("Search Iteration")
+    @Category("Tic-Tac-Toe")
+    @Description("One iterative-deepening iteration of the node-budget search")
+    @StackTrace(false)
+    public static class IterationEvent extends Event {
+        @Label("Position")
+        String position;
+        @Label("Depth")
+        int depth;
+        @Label("Completed")
+        @Description("False when the node budget ran out during the iteration")
+        boolean completed;
+        @Label("Nodes")
+        long nodes;
+        @Label("Cutoffs")
+        long cutoffs;
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    @Name("tictactoe.CacheLookup")
+    @Label("Move Cache Lookup")
+    @Category("Tic-Tac-Toe")
+    @Description("One move cache lookup; a miss includes the search, a coalesced lookup the wait for it")
+    @StackTrace(false)
+    public static class CacheLookupEvent extends Event {
+        @Label("Position")
+        String position;
+        @Label("Outcome")
+        String outcome;
+        @Label("Cache Hits")
+        @Description("Hits of the cache so far")
+        long cacheHits;
+        @Label("Allocated")
+        @DataAmount
+        long allocatedBytes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "search.jfr");
+
+        // the same workload with recording off and on (after a warm-up run), to show what the events cost
+        playGames(new Random(717));
+        long off = playGames(new Random(717));
+        long on;
+        try (Recording recording = new Recording()) {
+            recording.enable(SearchEvent.class);
+            recording.enable(IterationEvent.class);
+            recording.enable(CacheLookupEvent.class);
+            recording.start();
+            playGames(new Random(717));
+            on = playGames(new Random(717));
+            recording.stop();
+            recording.dump(file);
+        }
+        System.out.printf("workload: %d ms without recording, %d ms with recording%n", off / 1_000_000, on / 1_000_000);
+
+        List<RecordedEvent> searches = new ArrayList<>();
+        int iterations = 0, lookups = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            switch (event.getEventType().getName()) {
+                case "tictactoe.Search": searches.add(event); break;
+                case "tictactoe.Iteration": iterations++; break;
+                case "tictactoe.CacheLookup": lookups++; break;
+                default: break;
+            }
+        }
+        System.out.printf("%d search, %d iteration and %d cache lookup events in %s (%d KB)%n",
+                searches.size(), iterations, lookups, file, Files.size(file) / 1024);
+        searches.sort((a, b) -> b.getDuration().compareTo(a.getDuration()));
+        System.out.println("slowest searches:");
+        for (RecordedEvent event : searches.subList(0, Math.min(5, searches.size()))) {
+            System.out.printf("  [%s] depth %d, %d nodes, %d cutoffs, %d bytes, %.2f ms%n", event.getString("position"),
+                    event.getInt("depth"), event.getLong("nodes"), event.getLong("cutoffs"),
+                    event.getLong("allocatedBytes"), event.getDuration().toNanos() / 1e6);
+        }
+    }
+
+    // budget games against random moves, and cached full-depth searches
+    private static long playGames(Random random) {
+        long start = System.nanoTime();
+        TicTacToeMoveCache cache = new TicTacToeMoveCache(1024, 9);
+        for (int game = 0; game < 200; game++) {
+            char[][] state = new char[3][3];
+            for (char[] row : state) {
+                java.util.Arrays.fill(row, EMPTY_CELL);
+            }
+            char player = 'X';
+            while (!TicTacToeAlphaBetaPruning.isGameOver(state)) {
+                int[] move;
+                if (player == 'X') {
+                    move = game % 2 == 0
+                            ? TicTacToeAlphaBetaPruning.findBestMoveWithinBudget(state, 3000, 0, random)
+                            : TicTacToeAlphaBetaPruning.findBestMove(state, 9);
+                } else {
+                    TicTacToeMoveCache.MoveResult result = cache.getBestMove(state, player);
+                    move = random.nextInt(3) == 0 ? randomMove(state, random) : new int[]{result.row, result.col};
+                }
+                state[move[0]][move[1]] = player;
+                player = player == 'X' ? 'O' : 'X';
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int[] randomMove(char[][] state, Random random) {
+        List<int[]> moves = TicTacToeAlphaBetaPruning.getValidMoves(state);
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    // Helper functions
+    // rows separated by '/', '.' for an empty cell, e.g. "X../.O./..X"
+    public static String position(char[][] state) {
+        StringBuilder sb = new StringBuilder(state.length * (state[0].length + 1));
+        for (int i = 0; i < state.length; i++) {
+            if (i > 0) sb.append('/');
+            for (char c : state[i]) {
+                sb.append(c == EMPTY_CELL ? '.' : c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // bytes allocated so far by the current thread, 0 when the JVM cannot tell
+    public static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled() ? threads : null;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.List;
+
+/**
+ * Shows what the selective search options of TicTacToeAlphaBetaPruning (late-move reductions and futility pruning)
+ * buy in the node-budget search: the nodes each iterative-deepening iteration costs with FULL_WIDTH and with
+ * SELECTIVE, and the deepest iteration either one finishes within a few node budgets.
+ *
+ * Usage: java TicTacToeSelectiveSearch
+ */
+public class TicTacToeSelectiveSearch {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char EMPTY_CELL = ' ';
+    private static final long[] BUDGETS = {300, 1000, 3000, 6000};
+
+    // rows separated by '/', '.' for an empty cell; X is to move in all of them
+    private static final String[] POSITIONS = {".../.../...", "X../.O./...", ".X./.O./..."};
+
+    public static void main(String[] args) {
+        for (String position : POSITIONS) {
+            char[][] state = parse(position);
+            long[] full = iterationNodes(state, TicTacToeAlphaBetaPruning.SearchOptions.FULL_WIDTH);
+            long[] selective = iterationNodes(state, TicTacToeAlphaBetaPruning.SearchOptions.SELECTIVE);
+            System.out.println(position + ":");
+            for (int depth = 1; depth < full.length; depth++) {
+                System.out.printf("  depth %d: %6d nodes full width, %6d selective%n", depth, full[depth], selective[depth]);
+            }
+            for (long budget : BUDGETS) {
+                System.out.printf("  budget %5d: full width finishes depth %d, selective depth %d%n",
+                        budget, finishedDepth(full, budget), finishedDepth(selective, budget));
+            }
+        }
+    }
+
+    // nodes of each iteration at the root, searched like findBestMoveWithinBudget does
+    private static long[] iterationNodes(char[][] state, TicTacToeAlphaBetaPruning.SearchOptions options) {
+        List<int[]> moves = TicTacToeAlphaBetaPruning.getValidMoves(state);
+        long[] nodes = new long[moves.size() + 1];
+        for (int depth = 1; depth <= moves.size(); depth++) {
+            TicTacToeAlphaBetaPruning.SearchStats stats = new TicTacToeAlphaBetaPruning.SearchStats();
+            for (int[] move : moves) {
+                char[][] nextState = TicTacToeAlphaBetaPruning.copyState(state);
+                TicTacToeAlphaBetaPruning.makeMove(nextState, move[0], move[1], MAX_PLAYER);
+                TicTacToeAlphaBetaPruning.minValue(nextState, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, options, stats);
+            }
+            nodes[depth] = stats.nodes();
+        }
+        return nodes;
+    }
+
+    // iterations run one after another on the same budget
+    private static int finishedDepth(long[] nodes, long budget) {
+        long used = 0;
+        for (int depth = 1; depth < nodes.length; depth++) {
+            used += nodes[depth];
+            if (used > budget) return depth - 1;
+        }
+        return nodes.length - 1;
+    }
+
+    private static char[][] parse(String position) {
+        String[] rows = position.split("/");
+        char[][] state = new char[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            state[i] = rows[i].replace('.', EMPTY_CELL).toCharArray();
+        }
+        return state;
+    }
+}
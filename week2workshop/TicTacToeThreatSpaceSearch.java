@@ -0,0 +1,370 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * k-in-a-row on a bigger board (e.g. 15x15, five in a row), using alpha-beta plus a threat-space search.
+ * Before the full-width search starts, a narrow pass only tries moves that make a "four"
+ * (a window of k cells with k-1 own stones and one empty cell, so both open rows and broken rows count)
+ * and the single block that answers it. If such a forcing line ends in a win, that move is returned at once.
+ */
+public class TicTacToeThreatSpaceSearch {
+
+    // 1. Game State Representation: 2D char array, the size is chosen at start
+    private static char[][] state;
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    public static final int WIN_SCORE = 1_000_000;
+    // right, down, down-right, down-left
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private static int winLength = 5;
+    private static int threatDepth = 10; // how many attacking moves a forcing line may have
+
+    public static void main(String[] args) {
+        Scanner scanner = new Scanner(System.in);
+        char currentPlayer;
+
+        System.out.println("Welcome to k-in-a-row vs Computer (Alpha-Beta + Threat-Space Search)! ");
+        int size = readInt(scanner, "Enter the board size (e.g., 15): ", 15, 3);
+        winLength = readInt(scanner, "Enter how many in a row are needed to win (e.g., 5): ", 5, 3);
+        if (winLength > size) {
+            System.out.println("Win length cannot be bigger than the board. Using " + size + ".");
+            winLength = size;
+        }
+        if (winLength > TicTacToePatternEvaluator.MAX_WIN_LENGTH) {
+            System.out.println("Win length can be at most " + TicTacToePatternEvaluator.MAX_WIN_LENGTH
+                    + ". Using " + TicTacToePatternEvaluator.MAX_WIN_LENGTH + ".");
+            winLength = TicTacToePatternEvaluator.MAX_WIN_LENGTH;
+        }
+        int depth = readInt(scanner, "Enter the difficulty level (depth for alpha-beta, e.g., 2): ", 2, 1);
+        initializeState(size);
+
+        int firstMoveChooser = readInt(scanner, "Who should make the first move? (1 - Computer (X), 2 - You (O)): ", 1, 1);
+        if (firstMoveChooser == 2) {
+            System.out.println("You (O) will make the first move.");
+            currentPlayer = MIN_PLAYER;
+        } else {
+            System.out.println("Computer (X) will make the first move.");
+            currentPlayer = MAX_PLAYER;
+        }
+
+        while (true) {
+            printState();
+            if (currentPlayer == MAX_PLAYER) {
+                System.out.println("Computer (MAX - X) is thinking...");
+                int[] bestMove = findBestMove(state, depth);
+                makeMove(state, bestMove[0], bestMove[1], MAX_PLAYER);
+                System.out.println("Computer plays " + bestMove[0] + " " + bestMove[1]);
+                currentPlayer = MIN_PLAYER;
+            } else {
+                System.out.println("Your turn (MIN - O). Enter row and column (e.g., 7 7):");
+                int row = -1, col = -1;
+                boolean validInput = false;
+                while (!validInput) {
+                    try {
+                        row = scanner.nextInt();
+                        col = scanner.nextInt();
+                        if (isValidMove(state, row, col)) {
+                            validInput = true;
+                        } else {
+                            System.out.println("Invalid move. Cell is not empty or out of bounds. Try again:");
+                        }
+                    } catch (java.util.InputMismatchException e) {
+                        System.out.println("Invalid input format. Enter row and column as numbers (e.g., 7 7). Try again:");
+                        scanner.next(); // consume the invalid input
+                    }
+                }
+                makeMove(state, row, col, MIN_PLAYER);
+                currentPlayer = MAX_PLAYER;
+            }
+
+            if (isGameOver(state)) {
+                printState();
+                char winner = findWinner(state, winLength);
+                if (winner == MAX_PLAYER) {
+                    System.out.println("Computer (MAX - X) wins!");
+                } else if (winner == MIN_PLAYER) {
+                    System.out.println("You (MIN - O) win!");
+                } else {
+                    System.out.println("It's a draw!");
+                }
+                break;
+            }
+        }
+        scanner.close();
+    }
+
+    private static int readInt(Scanner scanner, String prompt, int defaultValue, int minValue) {
+        System.out.print(prompt);
+        try {
+            int value = scanner.nextInt();
+            if (value >= minValue) {
+                return value;
+            }
+            System.out.println("Value should be at least " + minValue + ". Using default " + defaultValue + ".");
+        } catch (java.util.InputMismatchException e) {
+            System.out.println("Invalid input. Using default " + defaultValue + ".");
+            scanner.next(); // consume the invalid input
+        }
+        return defaultValue;
+    }
+
+    public static void initializeState(int size) {
+        state = new char[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                state[i][j] = EMPTY_CELL;
+            }
+        }
+    }
+
+    public static void printState() {
+        StringBuilder sb = new StringBuilder("    ");
+        for (int j = 0; j < state[0].length; j++) {
+            sb.append(String.format("%2d ", j));
+        }
+        System.out.println(sb);
+        for (int i = 0; i < state.length; i++) {
+            sb.setLength(0);
+            sb.append(String.format("%2d |", i));
+            for (int j = 0; j < state[i].length; j++) {
+                sb.append(' ').append(state[i][j] == EMPTY_CELL ? '.' : state[i][j]).append(' ');
+            }
+            System.out.println(sb);
+        }
+    }
+
+    // 2. Move Generation Function
+    public static List<int[]> getValidMoves(char[][] state) {
+        List<int[]> validMoves = new ArrayList<>();
+        for (int i = 0; i < state.length; i++) {
+            for (int j = 0; j < state[i].length; j++) {
+                if (state[i][j] == EMPTY_CELL) {
+                    validMoves.add(new int[]{i, j});
+                }
+            }
+        }
+        return validMoves;
+    }
+
+    // on a big board only cells close to the stones are worth searching
+    public static List<int[]> getCandidateMoves(char[][] state) {
+        int rows = state.length, cols = state[0].length;
+        List<int[]> moves = new ArrayList<>();
+        boolean anyStone = false;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (state[i][j] != EMPTY_CELL) {
+                    anyStone = true;
+                } else if (hasNeighbour(state, i, j, 2)) {
+                    moves.add(new int[]{i, j});
+                }
+            }
+        }
+        if (!anyStone) {
+            moves.add(new int[]{rows / 2, cols / 2});
+        }
+        return moves;
+    }
+
+    private static boolean hasNeighbour(char[][] state, int row, int col, int distance) {
+        for (int i = Math.max(0, row - distance); i <= Math.min(state.length - 1, row + distance); i++) {
+            for (int j = Math.max(0, col - distance); j <= Math.min(state[i].length - 1, col + distance); j++) {
+                if (state[i][j] != EMPTY_CELL) return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isValidMove(char[][] state, int row, int col) {
+        return row >= 0 && row < state.length && col >= 0 && col < state[row].length && state[row][col] == EMPTY_CELL;
+    }
+
+    public static void makeMove(char[][] state, int row, int col, char player) {
+        if (isValidMove(state, row, col)) {
+            state[row][col] = player;
+        }
+    }
+
+    public static char opponent(char player) {
+        return player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+    }
+
+    // 3. Win Detection over all k-length windows
+    public static char findWinner(char[][] state, int k) {
+        for (int i = 0; i < state.length; i++) {
+            for (int j = 0; j < state[i].length; j++) {
+                if (state[i][j] != EMPTY_CELL && isWinningMove(state, i, j, k)) {
+                    return state[i][j];
+                }
+            }
+        }
+        return EMPTY_CELL;
+    }
+
+    // checks only the four lines through (row, col), so it is cheap to call after every move
+    public static boolean isWinningMove(char[][] state, int row, int col, int k) {
+        char player = state[row][col];
+        if (player == EMPTY_CELL) return false;
+        for (int[] d : DIRECTIONS) {
+            int count = 1
+                    + countDirection(state, row, col, d[0], d[1], player)
+                    + countDirection(state, row, col, -d[0], -d[1], player);
+            if (count >= k) return true;
+        }
+        return false;
+    }
+
+    private static int countDirection(char[][] state, int row, int col, int dr, int dc, char player) {
+        int count = 0;
+        int r = row + dr, c = col + dc;
+        while (r >= 0 && r < state.length && c >= 0 && c < state[r].length && state[r][c] == player) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+
+    public static boolean isGameOver(char[][] state) {
+        return findWinner(state, winLength) != EMPTY_CELL || getValidMoves(state).isEmpty();
+    }
+
+    // 4. Evaluation Function: every window that only one side can still use is worth 10^(stones-1)
+    public static int evaluate(char[][] state) {
+        return evaluate(state, winLength);
+    }
+
+    public static int evaluate(char[][] state, int k) {
+        int score = 0;
+        int rows = state.length, cols = state[0].length;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                for (int[] d : DIRECTIONS) {
+                    int endRow = i + d[0] * (k - 1), endCol = j + d[1] * (k - 1);
+                    if (endRow >= rows || endCol < 0 || endCol >= cols) continue;
+                    int maxCount = 0, minCount = 0;
+                    for (int s = 0; s < k; s++) {
+                        char cell = state[i + d[0] * s][j + d[1] * s];
+                        if (cell == MAX_PLAYER) maxCount++;
+                        else if (cell == MIN_PLAYER) minCount++;
+                    }
+                    if (maxCount == k) return WIN_SCORE;
+                    if (minCount == k) return -WIN_SCORE;
+                    if (minCount == 0 && maxCount > 0) score += windowWeight(maxCount);
+                    else if (maxCount == 0 && minCount > 0) score -= windowWeight(minCount);
+                }
+            }
+        }
+        return score;
+    }
+
+    private static int windowWeight(int stones) {
+        int weight = 1;
+        for (int s = 1; s < stones; s++) weight *= 10;
+        return weight;
+    }
+
+    // 5. Threat Detection
+    // cells where player would complete a window of k right now
+    public static List<int[]> findCompletionCells(char[][] state, char player, int k) {
+        return findWindowCells(state, player, k, k - 1);
+    }
+
+    // cells where player would make a four, i.e. a window with k-1 stones and one gap
+    public static List<int[]> findThreatMoves(char[][] state, char player, int k) {
+        return findWindowCells(state, player, k, k - 2);
+    }
+
+    // empty cells of every window that holds exactly `stones` of player's stones and none of the opponent's
+    private static List<int[]> findWindowCells(char[][] state, char player, int k, int stones) {
+        int rows = state.length, cols = state[0].length;
+        boolean[][] seen = new boolean[rows][cols];
+        List<int[]> cells = new ArrayList<>();
+        if (stones < 0) return cells;
+        char other = opponent(player);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                for (int[] d : DIRECTIONS) {
+                    int endRow = i + d[0] * (k - 1), endCol = j + d[1] * (k - 1);
+                    if (endRow >= rows || endCol < 0 || endCol >= cols) continue;
+                    int own = 0;
+                    boolean blocked = false;
+                    for (int s = 0; s < k && !blocked; s++) {
+                        char cell = state[i + d[0] * s][j + d[1] * s];
+                        if (cell == player) own++;
+                        else if (cell == other) blocked = true;
+                    }
+                    if (blocked || own != stones) continue;
+                    for (int s = 0; s < k; s++) {
+                        int r = i + d[0] * s, c = j + d[1] * s;
+                        if (state[r][c] == EMPTY_CELL && !seen[r][c]) {
+                            seen[r][c] = true;
+                            cells.add(new int[]{r, c});
+                        }
+                    }
+                }
+            }
+        }
+        return cells;
+    }
+
+    // 6. Threat-Space Search: continuous fours only, so every line it finds is a real forced win
+    public static int[] findForcedWin(char[][] state, char attacker, int k, int maxThreats) {
+        List<int[]> wins = findCompletionCells(state, attacker, k);
+        if (!wins.isEmpty()) return wins.get(0);
+        if (maxThreats <= 0) return null;
+
+        List<int[]> defenderWins = findCompletionCells(state, opponent(attacker), k);
+        if (defenderWins.size() > 1) return null; // we can only block one of them
+        for (int[] move : findThreatMoves(state, attacker, k)) {
+            // when the defender already has a four, our threat must also block it
+            if (defenderWins.size() == 1 && !sameCell(move, defenderWins.get(0))) continue;
+            char[][] nextState = copyState(state);
+            nextState[move[0]][move[1]] = attacker;
+            if (attackerWinsAfterThreat(nextState, attacker, k, maxThreats - 1)) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    // the attacker has just made a four, the defender is to move
+    private static boolean attackerWinsAfterThreat(char[][] state, char attacker, int k, int threatsLeft) {
+        char defender = opponent(attacker);
+        if (!findCompletionCells(state, defender, k).isEmpty()) return false; // defender wins first
+        List<int[]> threats = findCompletionCells(state, attacker, k);
+        if (threats.size() > 1) return true; // open four or double four: cannot block both
+        if (threats.isEmpty()) return false;
+
+        int[] block = threats.get(0);
+        char[][] nextState = copyState(state);
+        nextState[block[0]][block[1]] = defender;
+        return findForcedWin(nextState, attacker, k, threatsLeft) != null;
+    }
+
+    private static boolean sameCell(int[] a, int[] b) {
+        return a[0] == b[0] && a[1] == b[1];
+    }
+
+    // 7. findBestMove: threat-space pass first, full-width alpha-beta only if it finds nothing
+    // (the full-width part runs on TicTacToePatternEvaluator, which keeps its score up to date move by move)
+    public static int[] findBestMove(char[][] state, int depth) {
+        int[] forcedWin = findForcedWin(state, MAX_PLAYER, winLength, threatDepth);
+        if (forcedWin != null) {
+            return forcedWin;
+        }
+        return TicTacToePatternEvaluator.findBestMove(state, winLength, depth);
+    }
+
+    // Helper function to copy the state (for search simulation)
+    public static char[][] copyState(char[][] state) {
+        char[][] copy = new char[state.length][];
+        for (int i = 0; i < state.length; i++) {
+            copy[i] = state[i].clone();
+        }
+        return copy;
+    }
+}
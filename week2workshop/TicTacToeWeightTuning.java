@@ -0,0 +1,215 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tuning of the heuristic weights in TicTacToeMinimaxEvaluateImproveByAI
+ * (TWO_IN_ROW_SCORE, SINGLE_IN_ROW_SCORE, CENTER_BONUS), instead of picking them by hand.
+ *
+ * 1. Self-play: many games are played in parallel (all cores) by the heuristic minimax engine,
+ *    with a random depth and some random moves so the games are varied.
+ *    Every position of a game is labelled with the game result (1 = X wins, 0.5 = draw, 0 = O wins).
+ * 2. Texel-style fit: the loss is the mean of (result - sigmoid(K * score))^2 over all positions.
+ *    K is fitted first, then each weight is moved by +1/-1 as long as the loss keeps going down.
+ *    The loss is summed over the positions in parallel.
+ * 3. The tuned weights are written to a properties file.
+ *
+ * Usage: java TicTacToeWeightTuning [games (default 20000)] [output file (default tuned-weights.properties)]
+ */
+public class TicTacToeWeightTuning {
+
+    private static final char MAX_PLAYER = 'X';
+    private static final char MIN_PLAYER = 'O';
+    private static final char EMPTY_CELL = ' ';
+    private static final double RANDOM_MOVE_RATE = 0.2;
+    private static final String[] WEIGHT_NAMES = {"TWO_IN_ROW_SCORE", "SINGLE_IN_ROW_SCORE", "CENTER_BONUS"};
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        String output = args.length > 1 ? args[1] : "tuned-weights.properties";
+
+        long start = System.nanoTime();
+        List<LabelledPosition> positions = generatePositions(games, 717);
+        System.out.printf("Generated %d unique positions from %d games in %d ms (%d threads)%n",
+                positions.size(), games, (System.nanoTime() - start) / 1_000_000,
+                Runtime.getRuntime().availableProcessors());
+
+        int[] weights = {3, 1, 2}; // the hand picked values
+        double k = fitScalingConstant(positions, weights);
+        System.out.printf("Start: weights %s, K %.3f, loss %.6f%n", weightsText(weights), k, loss(positions, weights, k));
+
+        weights = tuneWeights(positions, weights, k);
+        double finalLoss = loss(positions, weights, k);
+        System.out.printf("Tuned: weights %s, loss %.6f%n", weightsText(weights), finalLoss);
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(output))) {
+            out.println("# tuned by TicTacToeWeightTuning from " + games + " self-play games, loss " + finalLoss);
+            for (int i = 0; i < weights.length; i++) {
+                out.println(WEIGHT_NAMES[i] + "=" + weights[i]);
+            }
+        }
+        System.out.println("Weights written to " + output);
+    }
+
+    // 1. Self-play position generation
+    public static List<LabelledPosition> generatePositions(int games, long seed) {
+        // key: board as a 9 char string, value: {sum of results, count}
+        Map<String, double[]> results = new ConcurrentHashMap<>();
+        IntStream.range(0, games).parallel().forEach(game -> {
+            SplittableRandom random = new SplittableRandom(seed + game);
+            List<String> seen = new ArrayList<>();
+            char[][] state = emptyState();
+            char player = random.nextBoolean() ? MAX_PLAYER : MIN_PLAYER;
+            while (!TicTacToeMinimaxEvaluateImproveByAI.isGameOver(state)) {
+                seen.add(boardKey(state));
+                int[] move = chooseMove(state, player, random);
+                state[move[0]][move[1]] = player;
+                player = player == MAX_PLAYER ? MIN_PLAYER : MAX_PLAYER;
+            }
+            int score = TicTacToeMinimaxEvaluateImproveByAI.evaluate(state);
+            double result = score == 10 ? 1.0 : score == -10 ? 0.0 : 0.5;
+            for (String key : seen) {
+                results.compute(key, (k, v) -> {
+                    if (v == null) v = new double[2];
+                    v[0] += result;
+                    v[1]++;
+                    return v;
+                });
+            }
+        });
+
+        List<LabelledPosition> positions = new ArrayList<>(results.size());
+        results.forEach((key, v) -> positions.add(new LabelledPosition(fromKey(key), v[0] / v[1], (int) v[1])));
+        return positions;
+    }
+
+    private static int[] chooseMove(char[][] state, char player, SplittableRandom random) {
+        List<int[]> moves = TicTacToeMinimaxEvaluateImproveByAI.getValidMoves(state);
+        if (random.nextDouble() < RANDOM_MOVE_RATE) {
+            return moves.get(random.nextInt(moves.size()));
+        }
+        int depth = 1 + random.nextInt(3);
+        if (player == MAX_PLAYER) {
+            return TicTacToeMinimaxEvaluateImproveByAI.findBestMove(state, depth);
+        }
+        // the engine only plays X, so swap the colours to find O's move
+        return TicTacToeMinimaxEvaluateImproveByAI.findBestMove(swapPlayers(state), depth);
+    }
+
+    // 2. Texel-style loss
+    public static double loss(List<LabelledPosition> positions, int[] weights, double k) {
+        double[] sums = positions.parallelStream()
+                .map(p -> {
+                    int score = TicTacToeMinimaxEvaluateImproveByAI.calculateHeuristicScore(p.state, weights[0], weights[1], weights[2]);
+                    double error = p.result - sigmoid(k * score);
+                    return new double[]{error * error * p.count, p.count};
+                })
+                .reduce(new double[2], (a, b) -> new double[]{a[0] + b[0], a[1] + b[1]});
+        return sums[0] / sums[1];
+    }
+
+    private static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+
+    // K maps a score to a win probability; a coarse scan is enough for a single parameter
+    public static double fitScalingConstant(List<LabelledPosition> positions, int[] weights) {
+        double bestK = 0.01;
+        double bestLoss = Double.MAX_VALUE;
+        for (double k = 0.01; k <= 2.0; k += 0.01) {
+            double l = loss(positions, weights, k);
+            if (l < bestLoss) {
+                bestLoss = l;
+                bestK = k;
+            }
+        }
+        return bestK;
+    }
+
+    // local search: keep changing one weight by one step while the loss improves
+    public static int[] tuneWeights(List<LabelledPosition> positions, int[] start, double k) {
+        int[] best = start.clone();
+        double bestLoss = loss(positions, best, k);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < best.length; i++) {
+                for (int step : new int[]{1, -1}) {
+                    int[] candidate = best.clone();
+                    candidate[i] += step;
+                    if (candidate[i] < 0) continue;
+                    double l = loss(positions, candidate, k);
+                    if (l < bestLoss) {
+                        bestLoss = l;
+                        best = candidate;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String weightsText(int[] weights) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < weights.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(WEIGHT_NAMES[i]).append('=').append(weights[i]);
+        }
+        return sb.toString();
+    }
+
+    // Helper functions for boards
+    private static char[][] emptyState() {
+        char[][] state = new char[3][3];
+        for (char[] row : state) {
+            java.util.Arrays.fill(row, EMPTY_CELL);
+        }
+        return state;
+    }
+
+    private static char[][] swapPlayers(char[][] state) {
+        char[][] swapped = new char[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                char c = state[i][j];
+                swapped[i][j] = c == MAX_PLAYER ? MIN_PLAYER : c == MIN_PLAYER ? MAX_PLAYER : c;
+            }
+        }
+        return swapped;
+    }
+
+    private static String boardKey(char[][] state) {
+        StringBuilder sb = new StringBuilder(9);
+        for (char[] row : state) {
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    private static char[][] fromKey(String key) {
+        char[][] state = new char[3][3];
+        for (int i = 0; i < 9; i++) {
+            state[i / 3][i % 3] = key.charAt(i);
+        }
+        return state;
+    }
+
+    public static class LabelledPosition {
+        final char[][] state;
+        final double result; // average result of the games that went through this position
+        final int count;
+
+        LabelledPosition(char[][] state, double result, int count) {
+            this.state = state;
+            this.result = result;
+            this.count = count;
+        }
+    }
+}